@@ -0,0 +1,71 @@
+package cpcs324_project;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for the fixed-length baseline (8-bit and narrowest fixed width)
+ * and the random text generator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BaselineBenchmark {
+
+    @Param({"51200", "1048576"})
+    public int size;
+
+    @Param({"uniform26", "binary"})
+    public String distribution;
+
+    private ByteBuffer data;
+    private FixedLengthEncoder fixedEncoder;
+    private FixedLengthEncoder narrowEncoder;
+    private PackedBitstream narrowBits;
+    private ByteBuffer decoded;
+
+    @Setup
+    public void setUp() {
+        data = ByteBuffer.wrap(HuffmanBenchmark.generate(size, distribution, 42));
+        fixedEncoder = new FixedLengthEncoder();
+        narrowEncoder = FixedLengthEncoder.forData(data);
+        narrowBits = narrowEncoder.encode(data);
+        decoded = ByteBuffer.allocate(size);
+    }
+
+    @Benchmark
+    public PackedBitstream fixedLengthEncode() {
+        return fixedEncoder.encode(data);
+    }
+
+    @Benchmark
+    public PackedBitstream fixedWidthEncode() {
+        return narrowEncoder.encode(data);
+    }
+
+    @Benchmark
+    public ByteBuffer fixedWidthDecode() {
+        decoded.clear();
+        narrowEncoder.decode(narrowBits, decoded);
+        return decoded;
+    }
+
+    @Benchmark
+    public String randomTextGenerator() {
+        return RandomTextGenerator.execute(size);
+    }
+}
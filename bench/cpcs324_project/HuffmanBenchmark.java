@@ -0,0 +1,131 @@
+package cpcs324_project;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for every stage of the Huffman pipeline:
+ * frequency counting, tree build, code generation, encode and decode.
+ *
+ * Each benchmark runs over every input size and symbol distribution.
+ * Run with: ant -Djmh.lib.dir=<dir with the JMH jars> bench
+ * (the default arguments add the GC profiler for the allocation rate).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HuffmanBenchmark {
+
+    @Param({"51200", "1048576", "16777216"})
+    public int size;
+
+    // uniform26: A-Z text, skewed: geometric byte distribution, binary: uniform 0-255
+    @Param({"uniform26", "skewed", "binary"})
+    public String distribution;
+
+    private ByteBuffer data;
+    private HuffmanEncoder encoder;
+    private PackedBitstream encoded;
+    private ByteBuffer decoded;
+    private BitWriter writer;
+
+    @Setup
+    public void setUp() {
+        data = ByteBuffer.wrap(generate(size, distribution, 42));
+        encoder = new HuffmanEncoder();
+        encoded = encoder.encode(data);
+        decoded = ByteBuffer.allocate(size);
+        writer = new BitWriter(size);
+    }
+
+    // Test input with a fixed seed, so every run measures the same bytes
+    static byte[] generate(int size, String distribution, long seed) {
+        Random random = new Random(seed);
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            switch (distribution) {
+                case "uniform26":
+                    bytes[i] = (byte) ('A' + random.nextInt(26));
+                    break;
+                case "skewed": {
+                    // P(symbol k) ~ 2^-(k+1): a few very frequent symbols and a long tail
+                    int symbol = 0;
+                    while (symbol < 255 && random.nextBoolean()) {
+                        symbol++;
+                    }
+                    bytes[i] = (byte) symbol;
+                    break;
+                }
+                default:
+                    bytes[i] = (byte) random.nextInt(256);
+            }
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public long[] countFrequencies() {
+        long[] histogram = new long[256];
+        HuffmanEncoder.countBytes(data, histogram);
+        return histogram;
+    }
+
+    @Benchmark
+    public long[] countFrequenciesUnrolled() {
+        long[] histogram = new long[256];
+        HuffmanEncoder.countBytesUnrolled(data, histogram);
+        return histogram;
+    }
+
+    @Benchmark
+    public HuffmanEncoder treeBuild() {
+        encoder.buildHuffmanTree();
+        return encoder;
+    }
+
+    @Benchmark
+    public int[] treeBuildTwoQueue() {
+        return TwoQueueHuffmanBuilder.buildCodeLengths(encoder.getFrequencies());
+    }
+
+    @Benchmark
+    public HuffmanEncoder codeGeneration() {
+        encoder.buildCanonicalCodes();
+        return encoder;
+    }
+
+    // Reuses the writer, so the score is the encode loop and not a size-byte allocation
+    @Benchmark
+    public BitWriter encode() {
+        writer.reset();
+        encoder.encode(data, writer);
+        return writer;
+    }
+
+    @Benchmark
+    public ByteBuffer decodeLookupTable() {
+        decoded.clear();
+        HuffmanEncoder.decode(encoder.getCanonicalCode(), encoded, decoded);
+        return decoded;
+    }
+
+    @Benchmark
+    public String decodeTreeWalk() {
+        return encoder.decode(encoded, HuffmanEncoder.DecodeMode.TREE_WALK);
+    }
+}
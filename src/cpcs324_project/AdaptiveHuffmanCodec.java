@@ -0,0 +1,45 @@
+package cpcs324_project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Codec adapter for the one-pass AdaptiveHuffmanEncoder (FGK).
+ *
+ * Layout: u64 original size, packed payload. No code table is sent, the
+ * decoder rebuilds the tree from the bytes it has already decoded.
+ */
+public class AdaptiveHuffmanCodec implements Codec {
+
+    @Override
+    public String getName() {
+        return "Adaptive Huffman";
+    }
+
+    @Override
+    public ByteBuffer compress(ByteBuffer input) {
+        PackedBitstream payload = new AdaptiveHuffmanEncoder().encode(input);
+
+        ByteBuffer output = ByteBuffer.allocate(8 + payload.getData().length);
+        output.putLong(input.remaining());
+        output.put(payload.getData());
+        output.flip();
+        return output;
+    }
+
+    @Override
+    public ByteBuffer decompress(ByteBuffer compressed) throws IOException {
+        ByteBuffer input = compressed.duplicate();
+        int originalSize = CodecHeaders.readSize(input);
+        // Every byte costs at least one bit
+        if (originalSize > 8L * input.remaining()) {
+            throw new IOException("Compressed data is too short");
+        }
+        PackedBitstream payload = CodecHeaders.remainingBits(input);
+
+        ByteBuffer output = ByteBuffer.allocate(originalSize);
+        AdaptiveHuffmanEncoder.decode(payload, output);
+        output.flip();
+        return output;
+    }
+}
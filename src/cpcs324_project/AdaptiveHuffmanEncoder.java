@@ -0,0 +1,211 @@
+package cpcs324_project;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * One-pass adaptive Huffman coding (FGK algorithm).
+ *
+ * Encoder and decoder start from the same empty tree and update it after
+ * every symbol, so no frequency table is sent and no first pass over the
+ * data is needed: each byte is coded as soon as it arrives. A byte seen for
+ * the first time is sent as the code of the NYT ("not yet transmitted") node
+ * followed by its 8 raw bits.
+ *
+ * The tree is kept in flat arrays indexed by node number. Node numbers follow
+ * the sibling property (weights never decrease with the number), so after a
+ * symbol the update walks up to the root and swaps each node with the highest
+ * numbered node of the same weight before incrementing it.
+ *
+ * The model state is kept between calls, so a stream can be encoded (or
+ * decoded) in pieces; use a new instance or reset() for a new stream.
+ */
+public class AdaptiveHuffmanEncoder {
+
+    private static final int SYMBOLS = 256;
+    private static final int MAX_NODES = 2 * SYMBOLS + 1;
+    private static final int ROOT = MAX_NODES - 1;
+    private static final int NONE = -1;
+
+    private final long[] weight = new long[MAX_NODES];
+    private final int[] parent = new int[MAX_NODES];
+    private final int[] left = new int[MAX_NODES];    // Child for bit 0 (NONE for leaves)
+    private final int[] right = new int[MAX_NODES];   // Child for bit 1
+    private final int[] symbol = new int[MAX_NODES];  // Byte value of a leaf (NONE for NYT and internal nodes)
+    private final int[] leaf = new int[SYMBOLS];      // Node of each byte value (NONE = not seen yet)
+    private final int[] path = new int[MAX_NODES];    // Scratch: codeword bits from leaf to root
+    private int nyt;                                  // Node number of the NYT leaf
+
+    public AdaptiveHuffmanEncoder() {
+        reset();
+    }
+
+    /**
+     * Starts a new stream: the tree is back to a single NYT node.
+     */
+    public void reset() {
+        Arrays.fill(weight, 0);
+        Arrays.fill(left, NONE);
+        Arrays.fill(right, NONE);
+        Arrays.fill(symbol, NONE);
+        Arrays.fill(leaf, NONE);
+        parent[ROOT] = NONE;
+        nyt = ROOT;
+    }
+
+    /**
+     * Encodes raw bytes in one pass.
+     * @param data The bytes between position and limit are encoded (position is not changed).
+     * @return The packed encoded bitstream.
+     */
+    public PackedBitstream encode(ByteBuffer data) {
+        BitWriter writer = new BitWriter(data.remaining() / 2);
+        encode(data, writer);
+        return writer.toBitstream();
+    }
+
+    /**
+     * Encodes the bytes into the writer, continuing the current stream.
+     * With a channel-mode BitWriter the output is written while the input is
+     * still being read; call BitWriter.flush() to push it out at once.
+     * @param data The bytes between position and limit are encoded (position is not changed).
+     * @param writer Receives the codewords.
+     */
+    public void encode(ByteBuffer data, BitWriter writer) {
+        int end = data.limit();
+        for (int i = data.position(); i < end; i++) {
+            encodeSymbol(data.get(i) & 0xFF, writer);
+        }
+    }
+
+    /**
+     * Encodes one byte and updates the tree.
+     */
+    public void encodeSymbol(int value, BitWriter writer) {
+        int node = leaf[value];
+        if (node == NONE) {
+            writePath(nyt, writer);
+            writer.writeBits(value, 8);
+        } else {
+            writePath(node, writer);
+        }
+        update(value);
+    }
+
+    /**
+     * Decodes bytes until the output buffer is full, continuing the current stream.
+     * @param reader The encoded bits.
+     * @param output Receives exactly output.remaining() decoded bytes.
+     */
+    public void decode(BitReader reader, ByteBuffer output) {
+        while (output.hasRemaining()) {
+            output.put((byte) decodeSymbol(reader));
+        }
+    }
+
+    /**
+     * Decodes a whole bitstream produced by encode(ByteBuffer) with a fresh model.
+     * @param bitstream The packed bitstream.
+     * @param output Receives exactly output.remaining() decoded bytes.
+     */
+    public static void decode(PackedBitstream bitstream, ByteBuffer output) {
+        new AdaptiveHuffmanEncoder().decode(new BitReader(bitstream), output);
+    }
+
+    /**
+     * Decodes one byte and updates the tree.
+     */
+    public int decodeSymbol(BitReader reader) {
+        int node = ROOT;
+        while (left[node] != NONE) {
+            node = reader.readBit() == 0 ? left[node] : right[node];
+        }
+        int value = (node == nyt) ? reader.peekBits(8) : symbol[node];
+        if (node == nyt) {
+            reader.skipBits(8);
+        }
+        update(value);
+        return value;
+    }
+
+    // Writes the codeword of a node: the path from the root down to it
+    private void writePath(int node, BitWriter writer) {
+        int length = 0;
+        for (int child = node; child != ROOT; child = parent[child]) {
+            path[length++] = (right[parent[child]] == child) ? 1 : 0;
+        }
+        // Root-first order, packed up to 32 bits per write
+        int bits = 0;
+        int count = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            bits = (bits << 1) | path[i];
+            if (++count == 32) {
+                writer.writeBits(bits, 32);
+                bits = 0;
+                count = 0;
+            }
+        }
+        writer.writeBits(bits, count);
+    }
+
+    // FGK update after coding 'value'
+    private void update(int value) {
+        int node = leaf[value];
+        if (node == NONE) {
+            // Split NYT: new NYT on the left, new leaf on the right
+            int oldNyt = nyt;
+            int newLeaf = oldNyt - 1;
+            nyt = oldNyt - 2;
+            left[oldNyt] = nyt;
+            right[oldNyt] = newLeaf;
+            parent[nyt] = oldNyt;
+            parent[newLeaf] = oldNyt;
+            symbol[newLeaf] = value;
+            leaf[value] = newLeaf;
+            node = newLeaf;
+        }
+
+        while (node != ROOT) {
+            // Highest numbered node with the same weight (the block leader)
+            int leader = node;
+            while (leader + 1 < ROOT && weight[leader + 1] == weight[node]) {
+                leader++;
+            }
+            if (leader != node && leader != parent[node]) {
+                swap(node, leader);
+                node = leader;
+            }
+            weight[node]++;
+            node = parent[node];
+        }
+        weight[ROOT]++;
+    }
+
+    // Exchanges the subtrees at node numbers a and b (their weights are equal)
+    private void swap(int a, int b) {
+        int temp = symbol[a];
+        symbol[a] = symbol[b];
+        symbol[b] = temp;
+        temp = left[a];
+        left[a] = left[b];
+        left[b] = temp;
+        temp = right[a];
+        right[a] = right[b];
+        right[b] = temp;
+
+        // Children and leaf links follow the moved contents; the parents stay with the positions
+        relink(a);
+        relink(b);
+    }
+
+    private void relink(int node) {
+        if (left[node] != NONE) {
+            parent[left[node]] = node;
+            parent[right[node]] = node;
+        } else if (symbol[node] != NONE) {
+            leaf[symbol[node]] = node;
+        } else {
+            nyt = node;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package cpcs324_project;
+
+import java.util.SplittableRandom;
+
+/**
+ * Draws byte values from a fixed discrete distribution in O(1) per sample
+ * (Walker/Vose alias method). Only the symbols with a non-zero weight are
+ * stored, so a sampler for a sparse distribution stays small.
+ */
+public class AliasSampler {
+
+    private final byte[] symbols;        // Symbols with a non-zero weight
+    private final double[] probability;  // Chance of keeping column i instead of its alias
+    private final int[] alias;           // Column used when column i is not kept
+
+    /**
+     * @param weights Non-negative weights indexed by byte value (at most 256, at least one non-zero).
+     */
+    public AliasSampler(double[] weights) {
+        int count = 0;
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights must not be negative");
+            }
+            if (weight > 0) {
+                count++;
+                total += weight;
+            }
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("At least one weight must be non-zero");
+        }
+
+        symbols = new byte[count];
+        probability = new double[count];
+        alias = new int[count];
+
+        // Scaled weights: 1.0 is the average column height
+        double[] scaled = new double[count];
+        int n = 0;
+        for (int symbol = 0; symbol < weights.length; symbol++) {
+            if (weights[symbol] > 0) {
+                symbols[n] = (byte) symbol;
+                scaled[n] = weights[symbol] * count / total;
+                n++;
+            }
+        }
+
+        // Pair every short column with a tall one (work lists as int stacks)
+        int[] small = new int[count];
+        int[] large = new int[count];
+        int smallSize = 0;
+        int largeSize = 0;
+        for (int i = 0; i < count; i++) {
+            if (scaled[i] < 1.0) {
+                small[smallSize++] = i;
+            } else {
+                large[largeSize++] = i;
+            }
+        }
+        while (smallSize > 0 && largeSize > 0) {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallSize++] = more;
+            } else {
+                large[largeSize++] = more;
+            }
+        }
+        // Left-overs are full columns (up to rounding errors)
+        while (largeSize > 0) {
+            probability[large[--largeSize]] = 1.0;
+        }
+        while (smallSize > 0) {
+            probability[small[--smallSize]] = 1.0;
+        }
+    }
+
+    /**
+     * Creates a sampler from symbol counts.
+     */
+    public static AliasSampler fromCounts(long[] counts) {
+        double[] weights = new double[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            weights[i] = counts[i];
+        }
+        return new AliasSampler(weights);
+    }
+
+    /**
+     * Draws one byte value.
+     */
+    public byte sample(SplittableRandom random) {
+        int column = random.nextInt(symbols.length);
+        return random.nextDouble() < probability[column] ? symbols[column] : symbols[alias[column]];
+    }
+}
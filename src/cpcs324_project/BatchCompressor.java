@@ -0,0 +1,339 @@
+package cpcs324_project;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compresses every regular file under a directory into .huf containers,
+ * one task per file on a configurable executor.
+ *
+ * Backpressure: each task holds permits (in KB) from a semaphore sized by
+ * the in-flight limit, and submitting the next file blocks until enough
+ * permits are free. An in-memory task reserves 3x its input size: the heap
+ * copy of the input, the BitWriter buffer and the trimmed packed output
+ * (Huffman output is never larger than the input, apart from the header).
+ * A file whose reservation would exceed the limit uses the streaming mode
+ * instead, which reserves its two chunk buffers and runs alongside the
+ * other tasks. So memory use is bounded by the limit, not by the number or
+ * total size of the files.
+ */
+public class BatchCompressor {
+
+    /**
+     * Executor choices for the file tasks.
+     * FIXED and FORK_JOIN suit CPU-bound work (threads = cores), CACHED starts a
+     * thread per waiting file for I/O-bound cases (slow disks, network shares),
+     * VIRTUAL uses a virtual thread per file (needs Java 21 at run time).
+     */
+    public enum ExecutorKind {
+        FIXED,
+        FORK_JOIN,
+        CACHED,
+        VIRTUAL
+    }
+
+    /**
+     * Outcome of one file.
+     */
+    public static class FileResult {
+        private final Path input;
+        private final long originalSize;
+        private final long compressedSize;
+        private final long nanos;
+        private final String error; // null if the file was compressed
+
+        FileResult(Path input, long originalSize, long compressedSize, long nanos, String error) {
+            this.input = input;
+            this.originalSize = originalSize;
+            this.compressedSize = compressedSize;
+            this.nanos = nanos;
+            this.error = error;
+        }
+
+        public Path getInput() {
+            return input;
+        }
+
+        public long getOriginalSize() {
+            return originalSize;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isFailed() {
+            return error != null;
+        }
+
+        public double getCompressionRatio() {
+            return originalSize == 0 ? 1.0 : (double) compressedSize / originalSize;
+        }
+    }
+
+    /**
+     * Aggregate outcome of a batch.
+     */
+    public static class Report {
+        private final List<FileResult> results;
+        private final long wallNanos;
+        private final long peakInFlightBytes;
+
+        Report(List<FileResult> results, long wallNanos, long peakInFlightBytes) {
+            this.results = results;
+            this.wallNanos = wallNanos;
+            this.peakInFlightBytes = peakInFlightBytes;
+        }
+
+        /**
+         * Returns every file result, sorted by path.
+         */
+        public List<FileResult> getResults() {
+            return results;
+        }
+
+        public List<FileResult> getFailures() {
+            List<FileResult> failures = new ArrayList<>();
+            for (FileResult result : results) {
+                if (result.isFailed()) {
+                    failures.add(result);
+                }
+            }
+            return failures;
+        }
+
+        public long getTotalOriginalSize() {
+            long total = 0;
+            for (FileResult result : results) {
+                if (!result.isFailed()) total += result.originalSize;
+            }
+            return total;
+        }
+
+        public long getTotalCompressedSize() {
+            long total = 0;
+            for (FileResult result : results) {
+                if (!result.isFailed()) total += result.compressedSize;
+            }
+            return total;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        public long getPeakInFlightBytes() {
+            return peakInFlightBytes;
+        }
+
+        /**
+         * Input megabytes compressed per second of wall time.
+         */
+        public double getMegabytesPerSecond() {
+            return (getTotalOriginalSize() / (1024.0 * 1024.0)) / (wallNanos / 1e9);
+        }
+
+        /**
+         * Rows in the layout of Main's results table (one per compressed file).
+         * The decode time and code length columns are not measured here ("-").
+         */
+        public List<String[]> toResultsTable() {
+            List<String[]> rows = new ArrayList<>();
+            for (FileResult result : results) {
+                if (result.isFailed()) continue;
+                rows.add(new String[]{
+                    result.input.toString(),
+                    "Huffman Batch",
+                    String.valueOf(result.originalSize),
+                    String.valueOf(result.compressedSize),
+                    String.format("%.4f", result.getCompressionRatio()),
+                    String.valueOf(result.nanos / 1000000),
+                    "-",
+                    "-"
+                });
+            }
+            return rows;
+        }
+    }
+
+    private final ExecutorService executor;
+    private final int maxInFlightKilobytes;
+    private final int chunkSize;
+
+    /**
+     * @param executor Runs the file tasks (not shut down by this class).
+     * @param maxInFlightBytes The memory the running tasks may use at the same time
+     *        (inputs plus packed outputs, see the class comment).
+     */
+    public BatchCompressor(ExecutorService executor, long maxInFlightBytes) {
+        if (maxInFlightBytes < 1024) {
+            throw new IllegalArgumentException("The in-flight limit must be at least 1 KB: " + maxInFlightBytes);
+        }
+        this.executor = executor;
+        this.maxInFlightKilobytes = (int) Math.min(Integer.MAX_VALUE, maxInFlightBytes / 1024);
+        this.chunkSize = (int) Math.min(HuffmanFileFormat.DEFAULT_CHUNK_SIZE, maxInFlightBytes / 2);
+    }
+
+    /**
+     * Creates an executor of the given kind.
+     * @param threads The number of threads (FIXED and FORK_JOIN only).
+     */
+    public static ExecutorService newExecutor(ExecutorKind kind, int threads) {
+        switch (kind) {
+            case FIXED:
+                return Executors.newFixedThreadPool(threads);
+            case FORK_JOIN:
+                return new ForkJoinPool(threads);
+            case CACHED:
+                return Executors.newCachedThreadPool();
+            default:
+                // Looked up at run time, the project is compiled for Java 8
+                try {
+                    Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                    return (ExecutorService) factory.invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    throw new UnsupportedOperationException("Virtual threads need Java 21 or newer, running on "
+                            + System.getProperty("java.version"));
+                }
+        }
+    }
+
+    /**
+     * Compresses every regular file under inputDir to outputDir/<relative path>.huf.
+     * Files under outputDir are skipped when it is inside inputDir. A file that
+     * fails is recorded in the report and does not stop the batch.
+     * @return The report, with one result per file.
+     */
+    public Report compressDirectory(Path inputDir, Path outputDir) throws IOException, InterruptedException {
+        ConcurrentLinkedQueue<FileResult> results = new ConcurrentLinkedQueue<>();
+        List<Path> inputs = new ArrayList<>();
+        List<Long> sizes = new ArrayList<>();
+        Path absoluteOutput = outputDir.toAbsolutePath().normalize();
+
+        // Unreadable or vanished files and directories become failed results instead of ending the walk
+        Files.walkFileTree(inputDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                return dir.toAbsolutePath().normalize().startsWith(absoluteOutput)
+                        ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    inputs.add(file);
+                    sizes.add(attributes.size());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                results.add(new FileResult(file, 0, 0, 0, e.toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                if (e != null) {
+                    results.add(new FileResult(dir, 0, 0, 0, e.toString()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        Semaphore permits = new Semaphore(maxInFlightKilobytes);
+        AtomicLong inFlightBytes = new AtomicLong();
+        AtomicLong peakInFlightBytes = new AtomicLong();
+        List<Future<?>> tasks = new ArrayList<>();
+
+        long startTime = System.nanoTime();
+        for (int f = 0; f < inputs.size(); f++) {
+            Path input = inputs.get(f);
+            long size = sizes.get(f);
+            boolean streaming = inMemoryFootprint(size) > (long) maxInFlightKilobytes * 1024;
+            long loadedBytes = streaming ? 2L * chunkSize : inMemoryFootprint(size);
+            int needed = (int) Math.max(1, Math.min(maxInFlightKilobytes, (loadedBytes + 1023) / 1024));
+
+            // Backpressure: wait here until the running tasks have released enough memory
+            permits.acquire(needed);
+            peakInFlightBytes.accumulateAndGet(inFlightBytes.addAndGet(loadedBytes), Math::max);
+            Path output = outputDir.resolve(inputDir.relativize(input).toString() + ".huf");
+            try {
+                tasks.add(executor.submit(() -> {
+                    try {
+                        results.add(compressFile(input, output, size, streaming));
+                    } finally {
+                        inFlightBytes.addAndGet(-loadedBytes);
+                        permits.release(needed);
+                    }
+                }));
+            } catch (RuntimeException e) {
+                inFlightBytes.addAndGet(-loadedBytes);
+                permits.release(needed);
+                throw e;
+            }
+        }
+
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                // compressFile records its own failures, so only an Error ends up here
+                throw new IllegalStateException("Batch task failed", e.getCause());
+            }
+        }
+        long wallNanos = System.nanoTime() - startTime;
+
+        List<FileResult> sorted = new ArrayList<>(results);
+        Collections.sort(sorted, Comparator.comparing(FileResult::getInput));
+        return new Report(sorted, wallNanos, peakInFlightBytes.get());
+    }
+
+    // Memory an in-memory compress of a file needs: input, writer buffer and packed copy
+    private static long inMemoryFootprint(long size) {
+        return 3 * size;
+    }
+
+    // Compresses one file; any exception becomes a failed result
+    private FileResult compressFile(Path input, Path output, long size, boolean streaming) {
+        long startTime = System.nanoTime();
+        try {
+            Path parent = output.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            long compressedSize = streaming
+                    ? HuffmanFileFormat.compressStreaming(input, output, chunkSize)
+                    : HuffmanFileFormat.compress(input, output);
+            return new FileResult(input, size, compressedSize, System.nanoTime() - startTime, null);
+        } catch (IOException | RuntimeException | OutOfMemoryError e) {
+            return new FileResult(input, size, 0, System.nanoTime() - startTime, e.toString());
+        }
+    }
+}
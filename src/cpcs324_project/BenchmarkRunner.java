@@ -0,0 +1,335 @@
+package cpcs324_project;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs encoder benchmarks with warm-up and repeated measurements.
+ *
+ * Each task first runs a number of warm-up iterations (not recorded) so the
+ * JIT has compiled it, then N measured repetitions. The report gives the
+ * min, median, p90 and p99 of the repetitions instead of a single time, so
+ * one slow run (GC pause, page faults) does not decide the result.
+ * Results are saved as CSV and JSON together with the machine and JVM
+ * metadata, so runs on different releases and hardware can be compared.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * One unit of benchmarked work.
+     */
+    public interface Task {
+        void run() throws IOException;
+    }
+
+    /**
+     * Order statistics of the measured repetitions (in nanoseconds).
+     */
+    public static class Statistics {
+        private final long[] samples; // Sorted ascending
+
+        public Statistics(long[] samples) {
+            this.samples = samples.clone();
+            Arrays.sort(this.samples);
+        }
+
+        public long getMin() {
+            return samples[0];
+        }
+
+        public long getMedian() {
+            return getPercentile(50);
+        }
+
+        /**
+         * Returns the p-th percentile (nearest-rank method).
+         * With fewer than 100 repetitions p99 is the slowest run.
+         */
+        public long getPercentile(double p) {
+            int rank = (int) Math.ceil(p / 100.0 * samples.length);
+            return samples[Math.max(rank, 1) - 1];
+        }
+
+        public long getMax() {
+            return samples[samples.length - 1];
+        }
+
+        public double getMean() {
+            double total = 0;
+            for (long sample : samples) {
+                total += sample;
+            }
+            return total / samples.length;
+        }
+
+        /**
+         * Throughput at the median time.
+         * @param bytes The number of (original) bytes processed per run.
+         */
+        public double getMegabytesPerSecond(long bytes) {
+            return (bytes / (1024.0 * 1024.0)) / (getMedian() / 1e9);
+        }
+
+        public int getCount() {
+            return samples.length;
+        }
+    }
+
+    /**
+     * Benchmark result of one method on one file.
+     */
+    public static class Result {
+        private final String fileName;
+        private final String method;
+        private final long originalSize;
+        private final long compressedSize;
+        private final double entropy;       // Shannon entropy of the input, bits per symbol
+        private final Statistics encode;
+        private final Statistics decode;
+        private final boolean isCorrect;
+
+        public Result(String fileName, String method, long originalSize, long compressedSize,
+                double entropy, Statistics encode, Statistics decode, boolean isCorrect) {
+            this.fileName = fileName;
+            this.method = method;
+            this.originalSize = originalSize;
+            this.compressedSize = compressedSize;
+            this.entropy = entropy;
+            this.encode = encode;
+            this.decode = decode;
+            this.isCorrect = isCorrect;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public long getOriginalSize() {
+            return originalSize;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public double getCompressionRatio() {
+            return (double) compressedSize / originalSize;
+        }
+
+        /**
+         * Average code length actually used: compressed bits per input byte.
+         */
+        public double getBitsPerSymbol() {
+            return compressedSize * 8.0 / originalSize;
+        }
+
+        public double getEntropy() {
+            return entropy;
+        }
+
+        public Statistics getEncode() {
+            return encode;
+        }
+
+        public Statistics getDecode() {
+            return decode;
+        }
+
+        public boolean isCorrect() {
+            return isCorrect;
+        }
+    }
+
+    private final int warmUpRuns;
+    private final int measuredRuns;
+    private final List<Result> results = new ArrayList<>();
+
+    /**
+     * @param warmUpRuns Iterations run before measuring (not recorded).
+     * @param measuredRuns Measured repetitions per task (at least 1).
+     */
+    public BenchmarkRunner(int warmUpRuns, int measuredRuns) {
+        if (warmUpRuns < 0 || measuredRuns < 1) {
+            throw new IllegalArgumentException("Need at least 1 measured run and no negative warm-up runs");
+        }
+        this.warmUpRuns = warmUpRuns;
+        this.measuredRuns = measuredRuns;
+    }
+
+    /**
+     * Runs the warm-up iterations, then times each measured repetition.
+     */
+    public Statistics measure(Task task) throws IOException {
+        for (int i = 0; i < warmUpRuns; i++) {
+            task.run();
+        }
+        long[] samples = new long[measuredRuns];
+        for (int i = 0; i < measuredRuns; i++) {
+            long startTime = System.nanoTime();
+            task.run();
+            samples[i] = System.nanoTime() - startTime;
+        }
+        return new Statistics(samples);
+    }
+
+    public void addResult(Result result) {
+        results.add(result);
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    /**
+     * Shannon entropy of a byte histogram in bits per symbol:
+     * the lower bound on the average code length of any order-0 code.
+     */
+    public static double entropy(long[] histogram) {
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        double entropy = 0;
+        for (long count : histogram) {
+            if (count > 0) {
+                double p = (double) count / total;
+                entropy -= p * Math.log(p) / Math.log(2);
+            }
+        }
+        return entropy;
+    }
+
+    /**
+     * Describes the machine, the JVM and the run settings.
+     */
+    public Map<String, String> getMetadata() {
+        Runtime runtime = Runtime.getRuntime();
+        Map<String, String> metadata = new LinkedHashMap<>();
+        metadata.put("timestamp", Instant.now().toString());
+        metadata.put("os.name", System.getProperty("os.name"));
+        metadata.put("os.version", System.getProperty("os.version"));
+        metadata.put("os.arch", System.getProperty("os.arch"));
+        metadata.put("processors", String.valueOf(runtime.availableProcessors()));
+        metadata.put("max.heap.mb", String.valueOf(runtime.maxMemory() / (1024 * 1024)));
+        metadata.put("java.version", System.getProperty("java.version"));
+        metadata.put("java.vendor", System.getProperty("java.vendor"));
+        metadata.put("java.vm.name", System.getProperty("java.vm.name"));
+        metadata.put("java.vm.version", System.getProperty("java.vm.version"));
+        metadata.put("jvm.args", String.join(" ", ManagementFactory.getRuntimeMXBean().getInputArguments()));
+        metadata.put("warmup.runs", String.valueOf(warmUpRuns));
+        metadata.put("measured.runs", String.valueOf(measuredRuns));
+        return metadata;
+    }
+
+    /**
+     * Saves the results as a ';'-separated CSV file.
+     * The metadata is written first as '#' comment lines.
+     */
+    public void saveCSV(String fileName) throws IOException {
+        try (FileWriter writer = new FileWriter(fileName)) {
+            for (Map.Entry<String, String> entry : getMetadata().entrySet()) {
+                writer.write("# " + entry.getKey() + ";" + entry.getValue() + "\n");
+            }
+            writer.write("File Name;Method;Original Size (B);Compressed Size (B);Compression Ratio;"
+                    + "Bits/Symbol;Entropy;Phase;Min (ms);Median (ms);P90 (ms);P99 (ms);MB/s;Correct\n");
+            for (Result result : results) {
+                writeCSVRow(writer, result, "encode", result.getEncode());
+                writeCSVRow(writer, result, "decode", result.getDecode());
+            }
+        }
+    }
+
+    // One CSV line per result and phase
+    private static void writeCSVRow(FileWriter writer, Result result, String phase, Statistics stats) throws IOException {
+        writer.write(String.join(";",
+                result.getFileName(),
+                result.getMethod(),
+                String.valueOf(result.getOriginalSize()),
+                String.valueOf(result.getCompressedSize()),
+                String.format("%.4f", result.getCompressionRatio()),
+                String.format("%.4f", result.getBitsPerSymbol()),
+                String.format("%.4f", result.getEntropy()),
+                phase,
+                String.format("%.3f", stats.getMin() / 1e6),
+                String.format("%.3f", stats.getMedian() / 1e6),
+                String.format("%.3f", stats.getPercentile(90) / 1e6),
+                String.format("%.3f", stats.getPercentile(99) / 1e6),
+                String.format("%.2f", stats.getMegabytesPerSecond(result.getOriginalSize())),
+                String.valueOf(result.isCorrect())));
+        writer.write("\n");
+    }
+
+    /**
+     * Saves the metadata and the results as a JSON document.
+     * Times are in nanoseconds; the raw samples are not included.
+     */
+    public void saveJSON(String fileName) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"metadata\": {");
+        String separator = "\n";
+        for (Map.Entry<String, String> entry : getMetadata().entrySet()) {
+            json.append(separator).append("    ").append(quote(entry.getKey())).append(": ").append(quote(entry.getValue()));
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"results\": [");
+        separator = "\n";
+        for (Result result : results) {
+            json.append(separator).append("    {");
+            json.append("\"file\": ").append(quote(result.getFileName()));
+            json.append(", \"method\": ").append(quote(result.getMethod()));
+            json.append(", \"originalSize\": ").append(result.getOriginalSize());
+            json.append(", \"compressedSize\": ").append(result.getCompressedSize());
+            json.append(", \"compressionRatio\": ").append(String.format("%.6f", result.getCompressionRatio()));
+            json.append(", \"bitsPerSymbol\": ").append(String.format("%.6f", result.getBitsPerSymbol()));
+            json.append(", \"entropy\": ").append(String.format("%.6f", result.getEntropy()));
+            json.append(", \"correct\": ").append(result.isCorrect());
+            json.append(",\n      \"encode\": ").append(toJSON(result.getEncode(), result.getOriginalSize()));
+            json.append(",\n      \"decode\": ").append(toJSON(result.getDecode(), result.getOriginalSize()));
+            json.append("}");
+            separator = ",\n";
+        }
+        json.append("\n  ]\n}\n");
+
+        try (FileWriter writer = new FileWriter(fileName)) {
+            writer.write(json.toString());
+        }
+    }
+
+    // JSON object with the statistics of one phase
+    private static String toJSON(Statistics stats, long bytes) {
+        return "{\"runs\": " + stats.getCount()
+                + ", \"minNs\": " + stats.getMin()
+                + ", \"medianNs\": " + stats.getMedian()
+                + ", \"p90Ns\": " + stats.getPercentile(90)
+                + ", \"p99Ns\": " + stats.getPercentile(99)
+                + ", \"maxNs\": " + stats.getMax()
+                + ", \"meanNs\": " + String.format("%.1f", stats.getMean())
+                + ", \"megabytesPerSecond\": " + String.format("%.3f", stats.getMegabytesPerSecond(bytes)) + "}";
+    }
+
+    // JSON string literal with the required escapes
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
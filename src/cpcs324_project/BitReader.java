@@ -0,0 +1,142 @@
+package cpcs324_project;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads bits (MSB-first) from a packed bitstream.
+ *
+ * The bits either come from an in-memory PackedBitstream or from a channel.
+ * In channel mode only a fixed-size window of the stream is buffered and
+ * it is refilled as the reader moves forward.
+ */
+public class BitReader {
+
+    private final byte[] data;     // Packed input bytes (the whole stream or the current window)
+    private int dataLength;        // Number of valid bytes in data
+    private long baseByte;         // Stream byte index of data[0]
+    private final long bitLength;  // Number of meaningful bits
+    private long position;         // Index of the next bit to read
+
+    private final ReadableByteChannel channel; // Input channel (null in memory mode)
+    private long unreadChannelBytes;            // Payload bytes not yet read from the channel
+
+    public BitReader(PackedBitstream bitstream) {
+        this.data = bitstream.getData();
+        this.dataLength = data.length;
+        this.bitLength = bitstream.getBitLength();
+        this.channel = null;
+    }
+
+    /**
+     * Creates a reader that pulls the packed bits from a channel.
+     * @param channel The channel positioned at the first payload byte.
+     * @param bitLength The number of meaningful payload bits.
+     * @param bufferSize The size of the read window in bytes.
+     */
+    public BitReader(ReadableByteChannel channel, long bitLength, int bufferSize) {
+        this.data = new byte[Math.max(bufferSize, 16)];
+        this.bitLength = bitLength;
+        this.channel = channel;
+        this.unreadChannelBytes = (bitLength + 7) / 8;
+    }
+
+    /**
+     * Returns true while there are unread bits in the stream.
+     */
+    public boolean hasMoreBits() {
+        return position < bitLength;
+    }
+
+    /**
+     * Reads the next bit.
+     * @return 0 or 1.
+     */
+    public int readBit() {
+        if (position >= bitLength) {
+            throw new IllegalStateException("Read past the end of the bitstream");
+        }
+        int byteIndex = bufferIndex();
+        int bit = (data[byteIndex] >>> (7 - (int) (position & 7))) & 1;
+        position++;
+        return bit;
+    }
+
+    /**
+     * Returns the next 'count' bits without consuming them.
+     * Bits past the end of the stream are read as zeros.
+     * @param count The number of bits to peek (1..32).
+     * @return The bits, right-aligned.
+     */
+    public int peekBits(int count) {
+        int byteIndex = bufferIndex();
+        int bitOffset = (int) (position & 7);
+
+        // 5 bytes (40 bits) always cover a 32-bit window at any bit offset
+        long window = 0;
+        for (int i = 0; i < 5; i++) {
+            int index = byteIndex + i;
+            window = (window << 8) | (index < dataLength ? data[index] & 0xFF : 0);
+        }
+        return (int) ((window >>> (40 - bitOffset - count)) & ((1L << count) - 1));
+    }
+
+    /**
+     * Consumes 'count' bits that were already inspected with peekBits().
+     */
+    public void skipBits(int count) {
+        position += count;
+    }
+
+    /**
+     * Moves the reader to an absolute bit position. Memory mode only.
+     * Used to start decoding at an independently decodable block.
+     */
+    public void seek(long bitPosition) {
+        if (channel != null) {
+            throw new IllegalStateException("seek() is only available in memory mode");
+        }
+        position = bitPosition;
+    }
+
+    /**
+     * Returns the index of the next bit to read.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    // Returns the index in data[] of the byte holding the current bit,
+    // refilling the window first so at least 5 bytes are available (channel mode)
+    private int bufferIndex() {
+        int byteIndex = (int) ((position >>> 3) - baseByte);
+        if (channel != null && byteIndex + 5 > dataLength) {
+            refill(byteIndex);
+            byteIndex = 0;
+        }
+        return byteIndex;
+    }
+
+    // Moves the unread bytes to the front of the window and reads more from the channel
+    private void refill(int byteIndex) {
+        int remaining = Math.max(dataLength - byteIndex, 0);
+        System.arraycopy(data, byteIndex, data, 0, remaining);
+        baseByte += byteIndex;
+        dataLength = remaining;
+
+        // Never read past the payload, the channel may hold more data after it
+        int wanted = (int) Math.min(data.length - dataLength, unreadChannelBytes);
+        ByteBuffer target = ByteBuffer.wrap(data, dataLength, wanted);
+        try {
+            while (target.hasRemaining()) {
+                if (channel.read(target) < 0) break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        unreadChannelBytes -= target.position() - dataLength;
+        dataLength = target.position();
+    }
+}
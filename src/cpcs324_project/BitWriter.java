@@ -0,0 +1,232 @@
+package cpcs324_project;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Writes bits (MSB-first) into a byte buffer.
+ * Pending bits are kept in a 64-bit accumulator and flushed 32 bits at a time.
+ *
+ * In memory mode the buffer grows as needed (up to MAX_BUFFER_SIZE bytes) and
+ * toBitstream() returns the result.
+ * In channel mode the buffer has a fixed size and is written to the channel
+ * whenever it is full, so memory use does not depend on the output size.
+ */
+public class BitWriter {
+
+    // Largest array size every JVM can allocate (some reserve header words in the array)
+    public static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+    private byte[] buffer;      // Packed output bytes
+    private int bytePosition;   // Number of complete bytes in the buffer
+    private long accumulator;   // Bits not yet flushed to the buffer
+    private int pendingBits;    // Number of valid bits in the accumulator
+    private long bitLength;     // Total number of bits written
+
+    private final WritableByteChannel channel; // Output channel (null in memory mode)
+
+    public BitWriter() {
+        this(1024);
+    }
+
+    /**
+     * Creates an in-memory writer.
+     * @param initialCapacity The initial buffer size in bytes.
+     */
+    public BitWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, 16)];
+        this.channel = null;
+    }
+
+    /**
+     * Creates a writer that flushes its buffer to a channel.
+     * @param channel The output channel.
+     * @param bufferSize The size of the output buffer in bytes.
+     */
+    public BitWriter(WritableByteChannel channel, int bufferSize) {
+        this.buffer = new byte[Math.max(bufferSize, 16)];
+        this.channel = channel;
+    }
+
+    /**
+     * Appends a single bit (0 or 1).
+     */
+    public void writeBit(int bit) {
+        writeBits(bit & 1, 1);
+    }
+
+    /**
+     * Appends the lowest 'count' bits of 'bits', most significant bit first.
+     * @param bits The bit pattern (right-aligned).
+     * @param count The number of bits to write (0..32).
+     */
+    public void writeBits(int bits, int count) {
+        if (count < 0 || count > 32) {
+            throw new IllegalArgumentException("Bit count must be between 0 and 32: " + count);
+        }
+        accumulator = (accumulator << count) | (bits & ((1L << count) - 1));
+        pendingBits += count;
+        bitLength += count;
+
+        // At most 31 + 32 bits are pending, so the accumulator never overflows
+        if (pendingBits >= 32) {
+            pendingBits -= 32;
+            putInt((int) (accumulator >>> pendingBits));
+        }
+    }
+
+    /**
+     * Appends every bit of another packed bitstream.
+     * When the writer is byte-aligned the bytes are copied directly, otherwise
+     * each byte is shifted into place (bit-offset fix-up).
+     */
+    public void writeBitstream(PackedBitstream bitstream) {
+        byte[] source = bitstream.getData();
+        int fullBytes = (int) (bitstream.getBitLength() >>> 3);
+        int lastBits = (int) (bitstream.getBitLength() & 7);
+
+        flushWholeBytes();
+        if (pendingBits == 0 && channel == null) {
+            ensureSpace(fullBytes);
+            System.arraycopy(source, 0, buffer, bytePosition, fullBytes);
+            bytePosition += fullBytes;
+            bitLength += (long) fullBytes * 8;
+        } else {
+            for (int i = 0; i < fullBytes; i++) {
+                writeBits(source[i] & 0xFF, 8);
+            }
+        }
+        if (lastBits > 0) {
+            writeBits((source[fullBytes] & 0xFF) >>> (8 - lastBits), lastBits);
+        }
+    }
+
+    /**
+     * Returns the number of bits written so far.
+     */
+    public long getBitLength() {
+        return bitLength;
+    }
+
+    /**
+     * Empties the writer so its buffer can be reused for a new stream.
+     * Memory mode only.
+     */
+    public void reset() {
+        if (channel != null) {
+            throw new IllegalStateException("reset() is only available in memory mode");
+        }
+        bytePosition = 0;
+        accumulator = 0;
+        pendingBits = 0;
+        bitLength = 0;
+    }
+
+    /**
+     * Returns the current size of the byte buffer.
+     */
+    public int getCapacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Finishes the stream (the last byte is padded with zeros)
+     * and returns the packed result. Memory mode only.
+     */
+    public PackedBitstream toBitstream() {
+        if (channel != null) {
+            throw new IllegalStateException("toBitstream() is not available in channel mode, use finish()");
+        }
+        flushWholeBytes();
+        byte[] data = Arrays.copyOf(buffer, bytePosition + (pendingBits > 0 ? 1 : 0));
+        if (pendingBits > 0) {
+            data[bytePosition] = (byte) (accumulator << (8 - pendingBits));
+        }
+        return new PackedBitstream(data, bitLength);
+    }
+
+    /**
+     * Writes the remaining bits (last byte padded with zeros) to the channel.
+     * Channel mode only; the writer must not be used afterwards.
+     */
+    public void finish() throws IOException {
+        if (channel == null) {
+            throw new IllegalStateException("finish() is only available in channel mode, use toBitstream()");
+        }
+        flushWholeBytes();
+        if (pendingBits > 0) {
+            putByte((byte) (accumulator << (8 - pendingBits)));
+            pendingBits = 0;
+        }
+        flushBuffer();
+    }
+
+    /**
+     * Writes every complete byte to the channel now (low-latency streaming).
+     * Fewer than 8 bits may stay pending until more bits or finish(). Channel mode only.
+     */
+    public void flush() throws IOException {
+        if (channel == null) {
+            throw new IllegalStateException("flush() is only available in channel mode");
+        }
+        flushWholeBytes();
+        flushBuffer();
+    }
+
+    // Moves every complete byte from the accumulator to the buffer (fewer than 8 bits stay pending)
+    private void flushWholeBytes() {
+        while (pendingBits >= 8) {
+            pendingBits -= 8;
+            putByte((byte) (accumulator >>> pendingBits));
+        }
+    }
+
+    // Stores 4 bytes (big-endian)
+    private void putInt(int value) {
+        ensureSpace(4);
+        buffer[bytePosition] = (byte) (value >>> 24);
+        buffer[bytePosition + 1] = (byte) (value >>> 16);
+        buffer[bytePosition + 2] = (byte) (value >>> 8);
+        buffer[bytePosition + 3] = (byte) value;
+        bytePosition += 4;
+    }
+
+    // Stores one byte
+    private void putByte(byte value) {
+        ensureSpace(1);
+        buffer[bytePosition++] = value;
+    }
+
+    // Makes room for 'count' bytes: the buffer is doubled, or grown to fit, (memory mode)
+    // or flushed (channel mode, count is at most 8 there)
+    private void ensureSpace(int count) {
+        long required = (long) bytePosition + count;
+        if (required > buffer.length) {
+            if (channel == null) {
+                if (required > MAX_BUFFER_SIZE) {
+                    throw new IllegalStateException("The output exceeds the in-memory limit of "
+                            + MAX_BUFFER_SIZE + " bytes, write it to a channel instead");
+                }
+                buffer = Arrays.copyOf(buffer, (int) Math.min(MAX_BUFFER_SIZE, Math.max(required, buffer.length * 2L)));
+            } else {
+                try {
+                    flushBuffer();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    // Writes the complete bytes of the buffer to the channel
+    private void flushBuffer() throws IOException {
+        ByteBuffer out = ByteBuffer.wrap(buffer, 0, bytePosition);
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        bytePosition = 0;
+    }
+}
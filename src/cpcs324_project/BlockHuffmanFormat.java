@@ -0,0 +1,342 @@
+package cpcs324_project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+
+/**
+ * Block-based Huffman format with independently decodable blocks.
+ *
+ * The input is split into fixed-size blocks (64 KB by default) that share one
+ * canonical code table. The bit offset where each block starts is stored in a
+ * block index, so blocks can be decoded in parallel and a byte range can be
+ * restored by decoding only the blocks that cover it.
+ *
+ * File layout (big-endian):
+ * - magic          4 bytes  "HUFB"
+ * - version        1 byte
+ * - original size  8 bytes
+ * - CRC32          4 bytes  (checksum of the original bytes)
+ * - block size     4 bytes
+ * - code table     canonical (symbol, length) header, see CanonicalHuffmanCode
+ * - block count    4 bytes
+ * - block index    8 bytes per block (payload bit offset of the block)
+ * - payload bits   8 bytes
+ * - payload        ceil(payload bits / 8) bytes, packed MSB-first
+ */
+public class BlockHuffmanFormat {
+
+    public static final int MAGIC = 0x48554642; // "HUFB"
+    public static final byte VERSION = 1;
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * In-memory result of a block encode.
+     */
+    public static class EncodedBlocks {
+        private final CanonicalHuffmanCode code;
+        private final PackedBitstream payload;
+        private final long[] blockOffsets; // Bit offset of each block in the payload
+        private final int blockSize;
+        private final long originalSize;
+
+        public EncodedBlocks(CanonicalHuffmanCode code, PackedBitstream payload, long[] blockOffsets,
+                int blockSize, long originalSize) {
+            this.code = code;
+            this.payload = payload;
+            this.blockOffsets = blockOffsets;
+            this.blockSize = blockSize;
+            this.originalSize = originalSize;
+        }
+
+        public CanonicalHuffmanCode getCode() {
+            return code;
+        }
+
+        public PackedBitstream getPayload() {
+            return payload;
+        }
+
+        public long[] getBlockOffsets() {
+            return blockOffsets;
+        }
+
+        public int getBlockSize() {
+            return blockSize;
+        }
+
+        public long getOriginalSize() {
+            return originalSize;
+        }
+
+        public int getBlockCount() {
+            return blockOffsets.length;
+        }
+
+        // Number of original bytes in the given block (the last block may be shorter)
+        int getBlockLength(int block) {
+            return (int) Math.min(blockSize, originalSize - (long) block * blockSize);
+        }
+    }
+
+    /**
+     * Encodes the bytes block by block, recording where each block starts.
+     * @param data The bytes between position and limit are encoded (position is not changed).
+     * @param blockSize The number of original bytes per block.
+     */
+    public static EncodedBlocks encode(ByteBuffer data, int blockSize) {
+        HuffmanEncoder encoder = new HuffmanEncoder();
+        long[] histogram = new long[256];
+        HuffmanEncoder.countBytesUnrolled(data, histogram);
+        encoder.buildCodes(histogram);
+
+        int length = data.remaining();
+        int blockCount = (length + blockSize - 1) / blockSize;
+        long[] blockOffsets = new long[blockCount];
+        BitWriter writer = new BitWriter(length / 2);
+
+        for (int block = 0; block < blockCount; block++) {
+            blockOffsets[block] = writer.getBitLength();
+            ByteBuffer blockData = data.duplicate();
+            blockData.position(data.position() + block * blockSize);
+            blockData.limit(Math.min(blockData.position() + blockSize, data.limit()));
+            encoder.encode(blockData, writer);
+        }
+
+        return new EncodedBlocks(encoder.getCanonicalCode(), writer.toBitstream(), blockOffsets, blockSize, length);
+    }
+
+    /**
+     * Decodes every block in parallel on the given pool.
+     * @param blocks The encoded blocks.
+     * @param output Receives the original bytes (must have getOriginalSize() bytes remaining).
+     * @param pool The pool running one task per block.
+     */
+    public static void decode(EncodedBlocks blocks, ByteBuffer output, ForkJoinPool pool) {
+        // The table is read-only after construction, so all tasks can share it
+        final HuffmanDecodeTable table = new HuffmanDecodeTable(blocks.getCode());
+        final int start = output.position();
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int block = 0; block < blocks.getBlockCount(); block++) {
+            final int blockIndex = block;
+            tasks.add(pool.submit(() -> {
+                ByteBuffer blockOutput = output.duplicate();
+                blockOutput.position(start + blockIndex * blocks.getBlockSize());
+                blockOutput.limit(blockOutput.position() + blocks.getBlockLength(blockIndex));
+                decodeBlock(blocks, table, blockIndex, blockOutput);
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        output.position(start + (int) blocks.getOriginalSize());
+    }
+
+    // Decodes one block, starting at its bit offset, until the output slice is full
+    private static void decodeBlock(EncodedBlocks blocks, HuffmanDecodeTable table, int block, ByteBuffer output) {
+        BitReader reader = new BitReader(blocks.getPayload());
+        reader.seek(blocks.getBlockOffsets()[block]);
+        while (output.hasRemaining()) {
+            output.put((byte) table.decodeSymbol(reader));
+        }
+    }
+
+    /**
+     * Compresses a file into the block format.
+     * @return The size of the written file in bytes.
+     */
+    public static long compress(Path input, Path output, int blockSize) throws IOException {
+        ByteBuffer data = InputMode.HEAP_COPY.load(input);
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+
+        EncodedBlocks blocks = encode(data, blockSize);
+        byte[] codeTable = blocks.getCode().toHeaderBytes();
+
+        ByteBuffer header = ByteBuffer.allocate(4 + 1 + 8 + 4 + 4 + codeTable.length + 4
+                + 8 * blocks.getBlockCount() + 8);
+        header.putInt(MAGIC);
+        header.put(VERSION);
+        header.putLong(blocks.getOriginalSize());
+        header.putInt((int) crc.getValue());
+        header.putInt(blockSize);
+        header.put(codeTable);
+        header.putInt(blocks.getBlockCount());
+        for (long offset : blocks.getBlockOffsets()) {
+            header.putLong(offset);
+        }
+        header.putLong(blocks.getPayload().getBitLength());
+        header.flip();
+
+        try (FileChannel outChannel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            HuffmanFileFormat.writeFully(outChannel, header);
+            HuffmanFileFormat.writeFully(outChannel, ByteBuffer.wrap(blocks.getPayload().getData()));
+            return outChannel.size();
+        }
+    }
+
+    /**
+     * Restores a block-format file, decoding all blocks in parallel.
+     * @param threads The number of decoding threads.
+     * @return The size of the restored file in bytes.
+     */
+    public static long decompress(Path input, Path output, int threads) throws IOException {
+        ByteBuffer restored;
+        long expectedCrc;
+        try (FileChannel inChannel = FileChannel.open(input, StandardOpenOption.READ)) {
+            Header header = readHeader(inChannel, input);
+            expectedCrc = header.crc;
+            ByteBuffer payload = HuffmanFileFormat.readFully(inChannel, (int) ((header.payloadBits + 7) / 8));
+            EncodedBlocks blocks = header.toBlocks(new PackedBitstream(payload.array(), header.payloadBits));
+
+            restored = ByteBuffer.allocate((int) header.originalSize);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                decode(blocks, restored, pool);
+            } finally {
+                pool.shutdown();
+            }
+            restored.flip();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(restored.duplicate());
+        if (crc.getValue() != expectedCrc) {
+            throw new IOException("CRC32 mismatch, the file is corrupted: " + input);
+        }
+
+        try (FileChannel outChannel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            HuffmanFileFormat.writeFully(outChannel, restored);
+            return outChannel.size();
+        }
+    }
+
+    /**
+     * Restores only the bytes [offset, offset + length) of the original file.
+     * Only the payload bytes of the covering blocks are read from disk.
+     * The CRC32 covers the whole file, so it is not checked here.
+     */
+    public static byte[] readRange(Path input, long offset, int length) throws IOException {
+        try (FileChannel inChannel = FileChannel.open(input, StandardOpenOption.READ)) {
+            Header header = readHeader(inChannel, input);
+            if (offset < 0 || length < 0 || offset + length > header.originalSize) {
+                throw new IOException("Range " + offset + "+" + length + " is outside the file (size "
+                        + header.originalSize + ")");
+            }
+            byte[] range = new byte[length];
+            if (length == 0) {
+                return range;
+            }
+
+            int firstBlock = (int) (offset / header.blockSize);
+            int lastBlock = (int) ((offset + length - 1) / header.blockSize);
+
+            // Read only the payload bytes covering the blocks, aligned on a byte boundary
+            long firstByte = header.blockOffsets[firstBlock] >>> 3;
+            long endBit = lastBlock + 1 < header.blockOffsets.length
+                    ? header.blockOffsets[lastBlock + 1] : header.payloadBits;
+            long endByte = (endBit + 7) >>> 3;
+            ByteBuffer payload = ByteBuffer.allocate((int) (endByte - firstByte));
+            long filePosition = inChannel.position() + firstByte;
+            while (payload.hasRemaining()) {
+                if (inChannel.read(payload, filePosition + payload.position()) < 0) {
+                    throw new IOException("Unexpected end of file");
+                }
+            }
+
+            // Rebase the block offsets on the partial payload
+            long[] offsets = header.blockOffsets.clone();
+            for (int block = firstBlock; block <= lastBlock; block++) {
+                offsets[block] -= firstByte * 8;
+            }
+            EncodedBlocks blocks = new EncodedBlocks(header.code,
+                    new PackedBitstream(payload.array(), endBit - firstByte * 8),
+                    offsets, header.blockSize, header.originalSize);
+
+            HuffmanDecodeTable table = new HuffmanDecodeTable(header.code);
+            long blockStart = (long) firstBlock * header.blockSize;
+            ByteBuffer decoded = ByteBuffer.allocate((int) Math.min((long) (lastBlock - firstBlock + 1) * header.blockSize,
+                    header.originalSize - blockStart));
+            for (int block = firstBlock; block <= lastBlock; block++) {
+                ByteBuffer blockOutput = decoded.duplicate();
+                blockOutput.limit(blockOutput.position() + blocks.getBlockLength(block));
+                decodeBlock(blocks, table, block, blockOutput);
+                decoded.position(blockOutput.position());
+            }
+
+            System.arraycopy(decoded.array(), (int) (offset - blockStart), range, 0, length);
+            return range;
+        }
+    }
+
+    /**
+     * Returns true if the file starts with the block format magic.
+     */
+    public static boolean isBlockFile(Path input) throws IOException {
+        try (FileChannel inChannel = FileChannel.open(input, StandardOpenOption.READ)) {
+            if (inChannel.size() < 4) return false;
+            return HuffmanFileFormat.readFully(inChannel, 4).getInt() == MAGIC;
+        }
+    }
+
+    // Fields of the file header
+    private static class Header {
+        long originalSize;
+        long crc;
+        int blockSize;
+        CanonicalHuffmanCode code;
+        long[] blockOffsets;
+        long payloadBits;
+
+        EncodedBlocks toBlocks(PackedBitstream payload) {
+            return new EncodedBlocks(code, payload, blockOffsets, blockSize, originalSize);
+        }
+    }
+
+    // Reads and validates the header and block index, leaving the channel at the first payload byte
+    private static Header readHeader(FileChannel channel, Path input) throws IOException {
+        ByteBuffer fixed = HuffmanFileFormat.readFully(channel, 4 + 1 + 8 + 4 + 4);
+        if (fixed.getInt() != MAGIC) {
+            throw new IOException("Not a block .huf file: " + input);
+        }
+        byte version = fixed.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported block format version: " + version);
+        }
+
+        Header header = new Header();
+        header.originalSize = fixed.getLong();
+        header.crc = fixed.getInt() & 0xFFFFFFFFL;
+        header.blockSize = fixed.getInt();
+        if (header.originalSize > Integer.MAX_VALUE || header.blockSize <= 0) {
+            throw new IOException("Invalid block header: " + input);
+        }
+        header.code = HuffmanFileFormat.readCodeTable(channel);
+
+        // The index (8 bytes per block) must fit in the rest of the file
+        int blockCount = HuffmanFileFormat.readFully(channel, 4).getInt();
+        if (blockCount < 0 || 8L * blockCount > channel.size() - channel.position()) {
+            throw new IOException("Invalid block count " + blockCount + ", the file is corrupted: " + input);
+        }
+        ByteBuffer index = HuffmanFileFormat.readFully(channel, 8 * blockCount);
+        header.blockOffsets = new long[blockCount];
+        for (int block = 0; block < blockCount; block++) {
+            header.blockOffsets[block] = index.getLong();
+        }
+        header.payloadBits = HuffmanFileFormat.readFully(channel, 8).getLong();
+        if (header.payloadBits < 0 || header.payloadBits > 8 * (channel.size() - channel.position())) {
+            throw new IOException("Invalid payload length, the file is corrupted: " + input);
+        }
+        return header;
+    }
+}
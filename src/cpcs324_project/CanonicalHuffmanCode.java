@@ -0,0 +1,240 @@
+package cpcs324_project;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Canonical Huffman code built from code lengths only.
+ *
+ * Symbols are sorted by (code length, symbol value) and receive consecutive
+ * codes within each length. Because the codes follow from the lengths, the
+ * header only needs to store (symbol, length) pairs and the decoder can
+ * rebuild every codeword without the original tree.
+ *
+ * Header layout: u16 symbol count, then per symbol u16 symbol + u8 length.
+ */
+public class CanonicalHuffmanCode {
+
+    // Codes are kept in an int, so longer codewords are rejected
+    public static final int MAX_CODE_LENGTH = 32;
+
+    private final char[] symbols;  // Symbols sorted by (length, symbol)
+    private final int[] lengths;   // Code length of symbols[i]
+    private final int[] codes;     // Canonical codeword of symbols[i]
+    private final int maxLength;   // Longest code length
+
+    /**
+     * Creates a canonical code from (symbol, length) pairs.
+     * @param symbols The symbols (any order).
+     * @param lengths The code length of each symbol.
+     * @throws IllegalArgumentException If a length is outside 1..MAX_CODE_LENGTH or the
+     *         lengths are over-subscribed (Kraft sum above 1, so not a prefix code).
+     */
+    public CanonicalHuffmanCode(char[] symbols, int[] lengths) {
+        int n = symbols.length;
+        this.symbols = new char[n];
+        this.lengths = new int[n];
+        this.codes = new int[n];
+
+        // Sort the pairs by (length, symbol): one long key per pair, so large
+        // alphabets (up to 65536 symbols) sort in O(n log n)
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) lengths[i] << 16) | symbols[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < n; i++) {
+            this.symbols[i] = (char) keys[i];
+            this.lengths[i] = (int) (keys[i] >> 16);
+        }
+
+        // Assign consecutive codes, shifting left whenever the length grows.
+        // A code that no longer fits its length means the lengths are over-subscribed.
+        long code = 0;
+        int previousLength = n > 0 ? this.lengths[0] : 0;
+        for (int i = 0; i < n; i++) {
+            if (this.lengths[i] < 1 || this.lengths[i] > MAX_CODE_LENGTH) {
+                throw new IllegalArgumentException("Invalid code length: " + this.lengths[i]);
+            }
+            code <<= (this.lengths[i] - previousLength);
+            if (code >= 1L << this.lengths[i]) {
+                throw new IllegalArgumentException("Over-subscribed code lengths, not a prefix code");
+            }
+            this.codes[i] = (int) code;
+            previousLength = this.lengths[i];
+            code++;
+        }
+        this.maxLength = previousLength;
+    }
+
+    /**
+     * Builds the canonical code from the leaf depths of a Huffman tree.
+     * A tree with a single leaf gets a 1-bit code so it can still be decoded.
+     */
+    public static CanonicalHuffmanCode fromTree(HuffmanNode root) {
+        List<Character> symbolList = new ArrayList<>();
+        List<Integer> lengthList = new ArrayList<>();
+        collectLengths(root, 0, symbolList, lengthList);
+
+        char[] symbols = new char[symbolList.size()];
+        int[] lengths = new int[lengthList.size()];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = symbolList.get(i);
+            lengths[i] = Math.max(1, lengthList.get(i));
+        }
+        return new CanonicalHuffmanCode(symbols, lengths);
+    }
+
+    /**
+     * Builds the canonical code from code lengths indexed by symbol.
+     * @param codeLengths The length of each symbol's code (0 = unused symbol).
+     */
+    public static CanonicalHuffmanCode fromLengths(int[] codeLengths) {
+        int count = 0;
+        for (int length : codeLengths) {
+            if (length > 0) count++;
+        }
+        char[] symbols = new char[count];
+        int[] lengths = new int[count];
+        int i = 0;
+        for (int symbol = 0; symbol < codeLengths.length; symbol++) {
+            if (codeLengths[symbol] > 0) {
+                symbols[i] = (char) symbol;
+                lengths[i] = codeLengths[symbol];
+                i++;
+            }
+        }
+        return new CanonicalHuffmanCode(symbols, lengths);
+    }
+
+    // Records the depth of every leaf (DFS)
+    private static void collectLengths(HuffmanNode node, int depth, List<Character> symbols, List<Integer> lengths) {
+        if (node == null) return;
+
+        if (node.left == null && node.right == null) {
+            symbols.add(node.data);
+            lengths.add(depth);
+            return;
+        }
+        collectLengths(node.left, depth + 1, symbols, lengths);
+        collectLengths(node.right, depth + 1, symbols, lengths);
+    }
+
+    /**
+     * Rebuilds a (frequency-less) Huffman tree that matches the canonical codes.
+     * Only needed by the bit-by-bit tree-walk decoder.
+     */
+    public HuffmanNode buildTree() {
+        if (symbols.length == 0) return null; // Empty input has no tree
+
+        HuffmanNode treeRoot = new HuffmanNode(0, null, null);
+        for (int i = 0; i < symbols.length; i++) {
+            HuffmanNode node = treeRoot;
+            for (int bit = lengths[i] - 1; bit > 0; bit--) {
+                if (((codes[i] >>> bit) & 1) == 0) {
+                    if (node.left == null) node.left = new HuffmanNode(0, null, null);
+                    node = node.left;
+                } else {
+                    if (node.right == null) node.right = new HuffmanNode(0, null, null);
+                    node = node.right;
+                }
+            }
+            HuffmanNode leaf = new HuffmanNode(symbols[i], 0);
+            if ((codes[i] & 1) == 0) {
+                node.left = leaf;
+            } else {
+                node.right = leaf;
+            }
+        }
+        return treeRoot;
+    }
+
+    /**
+     * Writes the compact (symbol, length) header.
+     */
+    public void writeHeader(DataOutput out) throws IOException {
+        out.writeShort(symbols.length);
+        for (int i = 0; i < symbols.length; i++) {
+            out.writeChar(symbols[i]);
+            out.writeByte(lengths[i]);
+        }
+    }
+
+    /**
+     * Reads a header written by writeHeader() and rebuilds the codes.
+     */
+    public static CanonicalHuffmanCode readHeader(DataInput in) throws IOException {
+        int count = in.readUnsignedShort();
+        char[] symbols = new char[count];
+        int[] lengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            symbols[i] = in.readChar();
+            lengths[i] = in.readUnsignedByte();
+        }
+        return new CanonicalHuffmanCode(symbols, lengths);
+    }
+
+    /**
+     * Returns the serialized header as a byte array.
+     */
+    public byte[] toHeaderBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writeHeader(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            // ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Rebuilds the canonical code from serialized header bytes.
+     */
+    public static CanonicalHuffmanCode fromHeaderBytes(byte[] header) throws IOException {
+        return readHeader(new DataInputStream(new ByteArrayInputStream(header)));
+    }
+
+    /**
+     * Returns the number of coded symbols.
+     */
+    public int getSymbolCount() {
+        return symbols.length;
+    }
+
+    /**
+     * Returns the i-th symbol in canonical order.
+     */
+    public char getSymbol(int i) {
+        return symbols[i];
+    }
+
+    /**
+     * Returns the code length of the i-th symbol in canonical order.
+     */
+    public int getLength(int i) {
+        return lengths[i];
+    }
+
+    /**
+     * Returns the codeword of the i-th symbol in canonical order (right-aligned).
+     */
+    public int getCode(int i) {
+        return codes[i];
+    }
+
+    /**
+     * Returns the longest code length.
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+}
@@ -0,0 +1,187 @@
+package cpcs324_project;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of prebuilt canonical codes for many small inputs with
+ * similar statistics.
+ *
+ * The key is a fingerprint of the byte histogram: for every byte value, its
+ * ideal code length floor(log2(total / count)) in steps of 2 bits. Bytes
+ * with an ideal length above 'fingerprintLength' are left out, so inputs
+ * whose frequent symbols have about the same probabilities share one entry.
+ * Cached codes are built from a smoothed histogram that gives every byte
+ * value a (long) code, so a cached code can encode any input, even one with
+ * a byte that the input it was built from did not have.
+ *
+ * train() builds such a code once from a sample corpus (trained dictionary
+ * mode): encoders that use it skip counting and tree building completely.
+ *
+ * All methods are synchronized, so one cache can be shared by several threads.
+ */
+public class CodeTableCache {
+
+    // Bits of ideal code length per fingerprint bucket
+    private static final int BUCKET_BITS = 2;
+
+    // Observed counts are scaled by this before adding 1 for every byte value
+    private static final long SMOOTHING_SCALE = 256;
+
+    private final int capacity;
+    private final int fingerprintLength;
+    private final Map<Fingerprint, CanonicalHuffmanCode> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param capacity The maximum number of cached codes.
+     * @param fingerprintLength The longest ideal code length in the fingerprint
+     *        (smaller = coarser: more hits, but the cached codes fit less well).
+     */
+    public CodeTableCache(int capacity, int fingerprintLength) {
+        if (capacity < 1 || fingerprintLength < 1) {
+            throw new IllegalArgumentException("Capacity and fingerprint length must be at least 1");
+        }
+        this.capacity = capacity;
+        this.fingerprintLength = fingerprintLength;
+        // Access order: the least recently used entry is the eldest
+        this.entries = new LinkedHashMap<Fingerprint, CanonicalHuffmanCode>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Fingerprint, CanonicalHuffmanCode> eldest) {
+                if (size() > CodeTableCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached code for inputs like this histogram, building and
+     * caching it on a miss.
+     * @param histogram 256 counters indexed by byte value.
+     */
+    public synchronized CanonicalHuffmanCode get(long[] histogram) {
+        Fingerprint key = fingerprint(histogram);
+        CanonicalHuffmanCode code = entries.get(key);
+        if (code != null) {
+            hits++;
+            return code;
+        }
+        misses++;
+        code = buildSmoothedCode(histogram);
+        entries.put(key, code);
+        return code;
+    }
+
+    /**
+     * Builds a code for every byte value from sample data (trained dictionary).
+     * The samples are counted together; byte values missing from them still get a code.
+     */
+    public static CanonicalHuffmanCode train(ByteBuffer... samples) {
+        long[] histogram = new long[256];
+        for (ByteBuffer sample : samples) {
+            HuffmanEncoder.countBytesUnrolled(sample, histogram);
+        }
+        return buildSmoothedCode(histogram);
+    }
+
+    // Canonical code over all 256 byte values: scaled counts plus 1
+    private static CanonicalHuffmanCode buildSmoothedCode(long[] histogram) {
+        long[] smoothed = new long[256];
+        for (int symbol = 0; symbol < 256; symbol++) {
+            smoothed[symbol] = histogram[symbol] * SMOOTHING_SCALE + 1;
+        }
+        int[] lengths = TwoQueueHuffmanBuilder.buildCodeLengths(smoothed);
+        for (int length : lengths) {
+            if (length > CanonicalHuffmanCode.MAX_CODE_LENGTH) {
+                lengths = PackageMergeBuilder.buildCodeLengths(smoothed, CanonicalHuffmanCode.MAX_CODE_LENGTH);
+                break;
+            }
+        }
+        return CanonicalHuffmanCode.fromLengths(lengths);
+    }
+
+    // Quantized ideal code length of every byte value (0 = absent or very rare)
+    private Fingerprint fingerprint(long[] histogram) {
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        byte[] buckets = new byte[256];
+        for (int symbol = 0; symbol < 256; symbol++) {
+            long count = histogram[symbol];
+            if (count > 0) {
+                int idealLength = 63 - Long.numberOfLeadingZeros(total / count);
+                if (idealLength <= fingerprintLength) {
+                    buckets[symbol] = (byte) (1 + idealLength / BUCKET_BITS);
+                }
+            }
+        }
+        return new Fingerprint(buckets);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Returns hits / (hits + misses), or 0 before the first lookup.
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getFingerprintLength() {
+        return fingerprintLength;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("hits=%d misses=%d evictions=%d size=%d/%d hitRate=%.3f",
+                hits, misses, evictions, entries.size(), capacity, getHitRate());
+    }
+
+    // Histogram fingerprint used as the map key
+    private static final class Fingerprint {
+        private final byte[] buckets;
+        private final int hash;
+
+        Fingerprint(byte[] buckets) {
+            this.buckets = buckets;
+            this.hash = Arrays.hashCode(buckets);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Fingerprint && Arrays.equals(buckets, ((Fingerprint) other).buckets);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package cpcs324_project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Common API of the compression codecs, so Main can compare any set of them
+ * with one loop.
+ *
+ * compress() returns a self-contained buffer (the codec's own header plus
+ * payload) that decompress() restores without any other state.
+ *
+ * The streaming methods split the input into frames of STREAM_FRAME_SIZE
+ * bytes, each compressed on its own and written as u32 length + data, then
+ * a u32 0 end marker. So memory use is bounded by the frame size whatever
+ * the stream length, for every codec.
+ */
+public interface Codec {
+
+    // Input bytes per frame in the streaming methods
+    int STREAM_FRAME_SIZE = 1 << 20;
+
+    // Largest compressed frame accepted by the streaming decoder: above any codec's
+    // output for a full frame (at most 32-bit codewords per byte plus the code tables)
+    int MAX_STREAM_FRAME_LENGTH = 8 * STREAM_FRAME_SIZE;
+
+    /**
+     * Returns the name shown in the results tables.
+     */
+    String getName();
+
+    /**
+     * Compresses the bytes between position and limit (position is not changed).
+     * @return The compressed bytes, ready for reading.
+     */
+    ByteBuffer compress(ByteBuffer input);
+
+    /**
+     * Restores the original bytes from the output of compress().
+     * @return The original bytes, ready for reading.
+     */
+    ByteBuffer decompress(ByteBuffer compressed) throws IOException;
+
+    /**
+     * Returns the longest codeword used in the output of compress(), for the
+     * Max Code Length column of the results table.
+     * @return The length in bits, or -1 if the codec has no codewords.
+     */
+    default int getMaxCodeLength(ByteBuffer compressed) throws IOException {
+        return -1;
+    }
+
+    /**
+     * Compresses a stream frame by frame.
+     * @return The number of compressed bytes written.
+     */
+    default long compress(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(STREAM_FRAME_SIZE);
+        ByteBuffer length = ByteBuffer.allocate(4);
+        long written = 0;
+        while (true) {
+            frame.clear();
+            while (frame.hasRemaining() && in.read(frame) >= 0) {
+                // Fill the whole frame unless the stream ends
+            }
+            frame.flip();
+            if (!frame.hasRemaining()) break;
+
+            ByteBuffer compressed = compress(frame);
+            if (compressed.remaining() > MAX_STREAM_FRAME_LENGTH) {
+                throw new IllegalStateException(getName() + " produced a frame larger than " + MAX_STREAM_FRAME_LENGTH + " bytes");
+            }
+            length.clear();
+            length.putInt(compressed.remaining()).flip();
+            written += 4 + compressed.remaining();
+            CodecHeaders.writeFully(out, length);
+            CodecHeaders.writeFully(out, compressed);
+        }
+        length.clear();
+        length.putInt(0).flip();
+        CodecHeaders.writeFully(out, length);
+        return written + 4;
+    }
+
+    /**
+     * Restores a stream written by compress(ReadableByteChannel, WritableByteChannel).
+     * @return The number of original bytes written.
+     */
+    default long decompress(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        long written = 0;
+        while (true) {
+            int length = CodecHeaders.readFully(in, 4).getInt();
+            if (length == 0) break;
+            if (length < 0 || length > MAX_STREAM_FRAME_LENGTH) {
+                throw new IOException("Invalid frame length: " + length);
+            }
+            ByteBuffer original = decompress(CodecHeaders.readFully(in, length));
+            written += original.remaining();
+            CodecHeaders.writeFully(out, original);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,66 @@
+package cpcs324_project;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Helpers shared by the Codec implementations to read their headers.
+ */
+final class CodecHeaders {
+
+    private CodecHeaders() {
+    }
+
+    // Reads the u64 original size and checks that it fits in one buffer
+    static int readSize(ByteBuffer input) throws IOException {
+        if (input.remaining() < 8) {
+            throw new IOException("Compressed data is too short");
+        }
+        long size = input.getLong();
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Invalid original size: " + size);
+        }
+        return (int) size;
+    }
+
+    // DataInput view that consumes the buffer (for CanonicalHuffmanCode.readHeader)
+    static DataInput asDataInput(ByteBuffer input) {
+        return new DataInputStream(new InputStream() {
+            @Override
+            public int read() {
+                return input.hasRemaining() ? input.get() & 0xFF : -1;
+            }
+        });
+    }
+
+    // The rest of the buffer as a packed bitstream
+    static PackedBitstream remainingBits(ByteBuffer input) {
+        byte[] data = new byte[input.remaining()];
+        input.get(data);
+        return new PackedBitstream(data, (long) data.length * 8);
+    }
+
+    // Reads exactly 'size' bytes (ready for reading)
+    static ByteBuffer readFully(ReadableByteChannel in, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                throw new IOException("Unexpected end of stream");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // Writes the whole buffer
+    static void writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package cpcs324_project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Codec adapter for the order-1 ContextHuffmanEncoder.
+ *
+ * Layout: u32 header length, ContextHuffmanEncoder header, packed payload.
+ */
+public class ContextHuffmanCodec implements Codec {
+
+    @Override
+    public String getName() {
+        return "Huffman Order-1";
+    }
+
+    @Override
+    public ByteBuffer compress(ByteBuffer input) {
+        ContextHuffmanEncoder encoder = new ContextHuffmanEncoder();
+        PackedBitstream payload = encoder.encode(input);
+        byte[] header = encoder.getHeader();
+
+        ByteBuffer output = ByteBuffer.allocate(4 + header.length + payload.getData().length);
+        output.putInt(header.length);
+        output.put(header);
+        output.put(payload.getData());
+        output.flip();
+        return output;
+    }
+
+    @Override
+    public ByteBuffer decompress(ByteBuffer compressed) throws IOException {
+        ByteBuffer input = compressed.duplicate();
+        byte[] header = readHeader(input);
+        return ByteBuffer.wrap(ContextHuffmanEncoder.decode(header, CodecHeaders.remainingBits(input)));
+    }
+
+    @Override
+    public int getMaxCodeLength(ByteBuffer compressed) throws IOException {
+        return ContextHuffmanEncoder.getMaxCodeLength(readHeader(compressed.duplicate()));
+    }
+
+    // The ContextHuffmanEncoder header, leaving the buffer at the payload
+    private static byte[] readHeader(ByteBuffer input) throws IOException {
+        int headerLength = input.getInt();
+        if (headerLength < 0 || headerLength > input.remaining()) {
+            throw new IOException("Invalid header length: " + headerLength);
+        }
+        byte[] header = new byte[headerLength];
+        input.get(header);
+        return header;
+    }
+}
@@ -0,0 +1,248 @@
+package cpcs324_project;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Order-1 context-modeled Huffman coding over bytes.
+ *
+ * Each byte is coded with the code table of its context, the previous byte
+ * (0 before the first byte), so e.g. the letter after 'q' or a UTF-8
+ * continuation byte after its lead byte gets a short codeword. Pass 1 counts
+ * a 256 x 256 histogram. A context seen fewer than minContextCount times is
+ * sparse: its counts are merged into one shared table, because its own table
+ * would cost more header bytes than it saves. Decoding uses one
+ * HuffmanDecodeTable per table (sparse contexts share one), so each symbol
+ * is still a table lookup.
+ *
+ * Header layout (big-endian):
+ * - original size   8 bytes
+ * - own-table map   32 bytes (bit c set = context c has its own table)
+ * - shared table    canonical (symbol, length) header (count 0 if unused)
+ * - own tables      canonical headers, in context order
+ */
+public class ContextHuffmanEncoder {
+
+    // Default number of bytes a context needs to get its own table
+    public static final int DEFAULT_MIN_CONTEXT_COUNT = 64;
+
+    private final int minContextCount;
+    private CanonicalHuffmanCode sharedCode;                                  // Table of the sparse contexts
+    private CanonicalHuffmanCode[] contextCodes = new CanonicalHuffmanCode[256]; // Own table of each context (null = shared)
+    private long originalSize;
+
+    public ContextHuffmanEncoder() {
+        this(DEFAULT_MIN_CONTEXT_COUNT);
+    }
+
+    /**
+     * @param minContextCount The number of bytes a context needs to get its own table
+     *        (1 = every used context has its own table).
+     */
+    public ContextHuffmanEncoder(int minContextCount) {
+        if (minContextCount < 1) {
+            throw new IllegalArgumentException("The context threshold must be at least 1: " + minContextCount);
+        }
+        this.minContextCount = minContextCount;
+    }
+
+    /**
+     * Encodes raw bytes with the order-1 context model.
+     * @param data The bytes between position and limit are encoded (position is not changed).
+     * @return The packed encoded bitstream; decode it with getHeader().
+     */
+    public PackedBitstream encode(ByteBuffer data) {
+        int start = data.position();
+        int end = data.limit();
+        originalSize = end - start;
+
+        // Pass 1: histogram of (previous byte, byte) pairs, flat 256 x 256
+        long[] counts = new long[256 * 256];
+        int context = 0;
+        for (int i = start; i < end; i++) {
+            int symbol = data.get(i) & 0xFF;
+            counts[(context << 8) | symbol]++;
+            context = symbol;
+        }
+
+        // Dense contexts get their own table, sparse ones are merged into the shared table
+        long[] sharedCounts = new long[256];
+        long[] histogram = new long[256];
+        boolean hasSharedSymbols = false;
+        contextCodes = new CanonicalHuffmanCode[256];
+        for (context = 0; context < 256; context++) {
+            long total = 0;
+            for (int symbol = 0; symbol < 256; symbol++) {
+                histogram[symbol] = counts[(context << 8) | symbol];
+                total += histogram[symbol];
+            }
+            if (total >= minContextCount) {
+                contextCodes[context] = buildCode(histogram);
+            } else if (total > 0) {
+                for (int symbol = 0; symbol < 256; symbol++) {
+                    sharedCounts[symbol] += histogram[symbol];
+                }
+                hasSharedSymbols = true;
+            }
+        }
+        sharedCode = hasSharedSymbols ? buildCode(sharedCounts) : new CanonicalHuffmanCode(new char[0], new int[0]);
+
+        // Codeword of every (context, byte) pair, so pass 2 is one lookup per byte
+        int[] bits = new int[256 * 256];
+        byte[] lengths = new byte[256 * 256];
+        for (context = 0; context < 256; context++) {
+            CanonicalHuffmanCode code = contextCodes[context] != null ? contextCodes[context] : sharedCode;
+            for (int i = 0; i < code.getSymbolCount(); i++) {
+                int pair = (context << 8) | code.getSymbol(i);
+                bits[pair] = code.getCode(i);
+                lengths[pair] = (byte) code.getLength(i);
+            }
+        }
+
+        // Pass 2: encode each byte with the table of its context
+        BitWriter writer = new BitWriter((end - start) / 2);
+        context = 0;
+        if (data.hasArray()) {
+            byte[] bytes = data.array();
+            int offset = data.arrayOffset();
+            for (int i = start; i < end; i++) {
+                int pair = (context << 8) | (bytes[offset + i] & 0xFF);
+                writer.writeBits(bits[pair], lengths[pair]);
+                context = pair & 0xFF;
+            }
+        } else {
+            for (int i = start; i < end; i++) {
+                int pair = (context << 8) | (data.get(i) & 0xFF);
+                writer.writeBits(bits[pair], lengths[pair]);
+                context = pair & 0xFF;
+            }
+        }
+        return writer.toBitstream();
+    }
+
+    // Canonical byte code of one histogram
+    private static CanonicalHuffmanCode buildCode(long[] histogram) {
+        HuffmanEncoder encoder = new HuffmanEncoder();
+        encoder.buildCodes(histogram);
+        return encoder.getCanonicalCode();
+    }
+
+    /**
+     * Returns the header needed to decode the last encoded bitstream.
+     */
+    public byte[] getHeader() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(originalSize);
+            byte[] ownTables = new byte[32];
+            for (int context = 0; context < 256; context++) {
+                if (contextCodes[context] != null) {
+                    ownTables[context >>> 3] |= (byte) (0x80 >>> (context & 7));
+                }
+            }
+            out.write(ownTables);
+            sharedCode.writeHeader(out);
+            for (int context = 0; context < 256; context++) {
+                if (contextCodes[context] != null) {
+                    contextCodes[context].writeHeader(out);
+                }
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores the original bytes from a header and its bitstream.
+     * @param header The header produced by getHeader().
+     * @param bitstream The packed bitstream produced by encode().
+     * @return The original bytes.
+     */
+    public static byte[] decode(byte[] header, PackedBitstream bitstream) throws IOException {
+        return decode(header, bitstream, null);
+    }
+
+    /**
+     * Returns the longest codeword over all tables of a header produced by getHeader().
+     */
+    public static int getMaxCodeLength(byte[] header) throws IOException {
+        int[] longest = new int[1];
+        decode(header, null, longest);
+        return longest[0];
+    }
+
+    // Reads the header; decodes the bitstream unless it is null (then only longest[0] is set)
+    private static byte[] decode(byte[] header, PackedBitstream bitstream, int[] longest) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(header));
+        long originalSize = in.readLong();
+        if (originalSize < 0 || originalSize > Integer.MAX_VALUE) {
+            throw new IOException("Invalid original size: " + originalSize);
+        }
+        byte[] ownTables = new byte[32];
+        in.readFully(ownTables);
+
+        // Sparse contexts all point to the same decode table
+        CanonicalHuffmanCode sharedCode = CanonicalHuffmanCode.readHeader(in);
+        HuffmanDecodeTable sharedTable = bitstream != null && sharedCode.getSymbolCount() > 0 ? new HuffmanDecodeTable(sharedCode) : null;
+        HuffmanDecodeTable[] tables = new HuffmanDecodeTable[256];
+        for (int context = 0; context < 256; context++) {
+            boolean hasOwnTable = (ownTables[context >>> 3] & (0x80 >>> (context & 7))) != 0;
+            if (hasOwnTable) {
+                CanonicalHuffmanCode code = CanonicalHuffmanCode.readHeader(in);
+                tables[context] = bitstream != null ? new HuffmanDecodeTable(code) : null;
+                if (longest != null) longest[0] = Math.max(longest[0], code.getMaxLength());
+            } else {
+                tables[context] = sharedTable;
+            }
+        }
+        if (bitstream == null) {
+            if (longest != null) longest[0] = Math.max(longest[0], sharedCode.getMaxLength());
+            return null;
+        }
+
+        byte[] output = new byte[(int) originalSize];
+        BitReader reader = new BitReader(bitstream);
+        int context = 0;
+        for (int i = 0; i < output.length; i++) {
+            HuffmanDecodeTable table = tables[context];
+            if (table == null) {
+                throw new IOException("No code table for context " + context);
+            }
+            context = table.decodeSymbol(reader);
+            output[i] = (byte) context;
+        }
+        return output;
+    }
+
+    /**
+     * Returns the number of contexts with their own table in the last encoded input.
+     */
+    public int getContextTableCount() {
+        int count = 0;
+        for (CanonicalHuffmanCode code : contextCodes) {
+            if (code != null) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the longest codeword over all tables of the last encoded input.
+     */
+    public int getMaxCodeLength() {
+        int longest = sharedCode == null ? 0 : sharedCode.getMaxLength();
+        for (CanonicalHuffmanCode code : contextCodes) {
+            if (code != null) longest = Math.max(longest, code.getMaxLength());
+        }
+        return longest;
+    }
+
+    public int getMinContextCount() {
+        return minContextCount;
+    }
+}
@@ -0,0 +1,20 @@
+package cpcs324_project;
+
+import java.util.SplittableRandom;
+
+/**
+ * A source of generated test bytes (one symbol distribution).
+ *
+ * Implementations keep no state between calls, so the same generator can
+ * fill several chunks at the same time from different threads. Every call
+ * gets its own random stream, which makes the output reproducible from a seed.
+ * See the factory methods in RandomTextGenerator.
+ */
+public interface CorpusGenerator {
+
+    /**
+     * Fills output[offset .. offset + length) with generated bytes.
+     * @param random The random stream for this chunk.
+     */
+    void generate(byte[] output, int offset, int length, SplittableRandom random);
+}
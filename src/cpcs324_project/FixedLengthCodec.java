@@ -0,0 +1,74 @@
+package cpcs324_project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Codec adapter for FixedLengthEncoder: the 8-bit Baseline, or the narrowest
+ * fixed width for each input (ceil(log2 alphabet) bits per byte).
+ *
+ * Layout: u64 original size, alphabet header (narrow only), packed payload.
+ */
+public class FixedLengthCodec implements Codec {
+
+    private final boolean narrow;
+
+    /**
+     * @param narrow False for the 8-bit Baseline, true to pick the narrowest width per input.
+     */
+    public FixedLengthCodec(boolean narrow) {
+        this.narrow = narrow;
+    }
+
+    @Override
+    public String getName() {
+        return narrow ? "Fixed-Width" : "Baseline";
+    }
+
+    @Override
+    public ByteBuffer compress(ByteBuffer input) {
+        FixedLengthEncoder encoder = narrow ? FixedLengthEncoder.forData(input) : new FixedLengthEncoder();
+        PackedBitstream payload = encoder.encode(input);
+        byte[] alphabet = narrow ? encoder.getHeader() : new byte[0];
+
+        ByteBuffer output = ByteBuffer.allocate(8 + alphabet.length + payload.getData().length);
+        output.putLong(input.remaining());
+        output.put(alphabet);
+        output.put(payload.getData());
+        output.flip();
+        return output;
+    }
+
+    @Override
+    public ByteBuffer decompress(ByteBuffer compressed) throws IOException {
+        ByteBuffer input = compressed.duplicate();
+        int originalSize = CodecHeaders.readSize(input);
+        FixedLengthEncoder encoder = readEncoder(input);
+        PackedBitstream payload = CodecHeaders.remainingBits(input);
+
+        ByteBuffer output = ByteBuffer.allocate(originalSize);
+        encoder.decode(payload, output);
+        if (output.hasRemaining()) {
+            throw new IOException("Compressed data is too short");
+        }
+        output.flip();
+        return output;
+    }
+
+    @Override
+    public int getMaxCodeLength(ByteBuffer compressed) throws IOException {
+        ByteBuffer input = compressed.duplicate();
+        CodecHeaders.readSize(input);
+        return readEncoder(input).getBitsPerSymbol();
+    }
+
+    // The 8-bit encoder, or the one described by the alphabet header (narrow only)
+    private FixedLengthEncoder readEncoder(ByteBuffer input) {
+        if (!narrow) {
+            return new FixedLengthEncoder();
+        }
+        byte[] alphabet = new byte[1 + (input.get(input.position()) & 0xFF) + 1];
+        input.get(alphabet);
+        return FixedLengthEncoder.fromHeader(alphabet);
+    }
+}
@@ -1,8 +1,10 @@
 package cpcs324_project;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
 
 
 /**
@@ -13,6 +15,11 @@ import java.nio.file.Paths;
  * - Decoding by converting each 8-bit block back to its original character.
  * - Methods to compute encoded size in bits and bytes.
  *
+ * The packed ByteBuffer methods also support narrower codes: with an
+ * alphabet of n byte values every byte gets the ceil(log2 n)-bit index of its
+ * value in the alphabet (e.g. 5 bits for A-Z). 8 codewords of w bits fill
+ * exactly w bytes, so the loops pack and unpack whole groups through a long
+ * without per-bit work; the 8-bit code over all byte values is a plain copy.
  */
 
 public class FixedLengthEncoder {
@@ -20,9 +27,105 @@ public class FixedLengthEncoder {
     // Fixed code length: 8 bits per character (1 byte).
     public static final int BITS_PER_CHAR = 8;
 
+    private final int bitsPerSymbol;  // Codeword width of the packed methods
+    private final byte[] alphabet;    // Byte value of each codeword (index = codeword)
+    private final int[] indexOf;      // Codeword of each byte value (-1 = not in the alphabet)
+    private final boolean isIdentity; // True for the 8-bit code where the codeword is the byte value
+
+    /**
+     * Creates the baseline encoder: 8 bits per byte, every byte value allowed.
+     */
+    public FixedLengthEncoder() {
+        this(identityAlphabet());
+    }
+
+    /**
+     * Creates a fixed-width encoder over an alphabet of byte values.
+     * @param alphabet The distinct byte values (1..256 of them); the width is ceil(log2 size), at least 1.
+     */
+    public FixedLengthEncoder(byte[] alphabet) {
+        if (alphabet.length < 1 || alphabet.length > 256) {
+            throw new IllegalArgumentException("The alphabet must have 1 to 256 byte values: " + alphabet.length);
+        }
+        this.alphabet = alphabet.clone();
+        this.indexOf = new int[256];
+        Arrays.fill(indexOf, -1);
+        for (int i = 0; i < alphabet.length; i++) {
+            int symbol = alphabet[i] & 0xFF;
+            if (indexOf[symbol] >= 0) {
+                throw new IllegalArgumentException("Duplicate byte value in the alphabet: " + symbol);
+            }
+            indexOf[symbol] = i;
+        }
+        this.bitsPerSymbol = Math.max(1, 32 - Integer.numberOfLeadingZeros(alphabet.length - 1));
+
+        boolean identity = alphabet.length == 256;
+        for (int i = 0; i < alphabet.length && identity; i++) {
+            identity = (alphabet[i] & 0xFF) == i;
+        }
+        this.isIdentity = identity;
+    }
+
+    /**
+     * Creates the narrowest fixed-width encoder for the bytes in the buffer
+     * (the alphabet is every byte value that occurs, in increasing order).
+     * @param data The bytes between position and limit (position is not changed).
+     */
+    public static FixedLengthEncoder forData(ByteBuffer data) {
+        long[] histogram = new long[256];
+        HuffmanEncoder.countBytesUnrolled(data, histogram);
+        int count = 0;
+        byte[] symbols = new byte[256];
+        for (int symbol = 0; symbol < 256; symbol++) {
+            if (histogram[symbol] > 0) {
+                symbols[count++] = (byte) symbol;
+            }
+        }
+        return new FixedLengthEncoder(Arrays.copyOf(symbols, Math.max(count, 1)));
+    }
+
+    /**
+     * Reads the header written by getHeader().
+     */
+    public static FixedLengthEncoder fromHeader(byte[] header) {
+        int count = (header[0] & 0xFF) + 1;
+        return new FixedLengthEncoder(Arrays.copyOfRange(header, 1, 1 + count));
+    }
+
+    // Byte values 0..255 in order
+    private static byte[] identityAlphabet() {
+        byte[] symbols = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            symbols[i] = (byte) i;
+        }
+        return symbols;
+    }
+
+    /**
+     * Returns the codeword width of the packed methods in bits.
+     */
+    public int getBitsPerSymbol() {
+        return bitsPerSymbol;
+    }
+
+    /**
+     * Returns the alphabet header: u8 (size - 1) followed by the byte values.
+     * Not needed for the default 8-bit code.
+     */
+    public byte[] getHeader() {
+        byte[] header = new byte[1 + alphabet.length];
+        header[0] = (byte) (alphabet.length - 1);
+        System.arraycopy(alphabet, 0, header, 1, alphabet.length);
+        return header;
+    }
+
     // Convert character to binary string, pad with leading zeros to ensure it is exactly 8 bits
     // Example: 'A' → "1000001" → padded to "01000001"
+    // Only byte values (0-255) fit in 8 bits; larger chars are rejected instead of growing the codeword
     public String to8BitBinary(char c) {
+        if (c > 0xFF) {
+            throw new IllegalArgumentException("Character does not fit in 8 bits: U+" + Integer.toHexString(c));
+        }
         // Convert the character to its binary representation
         String bin = Integer.toBinaryString(c);
 
@@ -39,34 +142,165 @@ public class FixedLengthEncoder {
 }
 
     // Encodes the content of a file using fixed 8-bit coding
+    // Every byte of the file is one codeword, so multi-byte UTF-8 characters and binary data keep 8 bits per byte
     public String encode(String fileName) throws IOException {
         
         // Read file content
-        String text = new String(Files.readAllBytes(Paths.get(fileName)));
+        byte[] text = Files.readAllBytes(Paths.get(fileName));
 
-        StringBuilder encodedBitstream = new StringBuilder();
+        StringBuilder encodedBitstream = new StringBuilder(text.length * BITS_PER_CHAR);
 
-        for (char c : text.toCharArray()) {
-            encodedBitstream.append(to8BitBinary(c));
+        for (byte b : text) {
+            encodedBitstream.append(to8BitBinary((char) (b & 0xFF)));
         }
 
         return encodedBitstream.toString();
     }
 
+    /**
+     * Encodes the file as raw bytes into a packed bitstream (8 bits per byte).
+     * @param fileName The path to the file to be encoded.
+     * @param mode How the file is loaded (heap copy or memory-mapped).
+     */
+    public PackedBitstream encodeToBits(String fileName, InputMode mode) throws IOException {
+        return encode(mode.load(Paths.get(fileName)));
+    }
+
+    /**
+     * Encodes raw bytes with a fixed-width codeword per byte (8 bits by default).
+     * @param data The bytes between position and limit are encoded (position is not changed).
+     */
+    public PackedBitstream encode(ByteBuffer data) {
+        byte[] input = toArray(data);
+        int count = input.length;
+        final int width = bitsPerSymbol;
+        long bitLength = (long) count * width;
+        if (bitLength > (long) Integer.MAX_VALUE * 8) {
+            throw new IllegalArgumentException("Input too large for one packed bitstream: " + count + " bytes");
+        }
+        byte[] output = new byte[(int) ((bitLength + 7) / 8)];
+
+        // 8 bits per byte over all byte values: the codewords are the bytes themselves
+        if (isIdentity) {
+            System.arraycopy(input, 0, output, 0, count);
+            return new PackedBitstream(output, bitLength);
+        }
+
+        final int[] index = indexOf;
+        int missing = 0; // Negative if a byte is not in the alphabet
+        int in = 0;
+        int out = 0;
+        // 8 codewords of 'width' bits are exactly 'width' whole bytes
+        for (int groupEnd = count - count % 8; in < groupEnd; in += 8) {
+            long group = 0;
+            for (int k = 0; k < 8; k++) {
+                int codeword = index[input[in + k] & 0xFF];
+                missing |= codeword;
+                group = (group << width) | codeword;
+            }
+            for (int shift = (width - 1) * 8; shift >= 0; shift -= 8) {
+                output[out++] = (byte) (group >>> shift);
+            }
+        }
+
+        // Last 0-7 codewords, left-aligned in the remaining bytes
+        int tail = count - in;
+        if (tail > 0) {
+            long group = 0;
+            for (int k = 0; k < tail; k++) {
+                int codeword = index[input[in + k] & 0xFF];
+                missing |= codeword;
+                group = (group << width) | codeword;
+            }
+            int tailBits = tail * width;
+            group <<= (8 - tailBits % 8) % 8;
+            for (int shift = ((tailBits + 7) / 8 - 1) * 8; shift >= 0; shift -= 8) {
+                output[out++] = (byte) (group >>> shift);
+            }
+        }
+        if (missing < 0) {
+            throw new IllegalArgumentException("The input has a byte value that is not in the alphabet");
+        }
+        return new PackedBitstream(output, bitLength);
+    }
+
+    /**
+     * Decodes a packed bitstream of fixed-width codewords back into raw bytes.
+     * @param bitstream The output of encode(ByteBuffer).
+     * @param output Receives one byte per codeword (as many as fit).
+     */
+    public void decode(PackedBitstream bitstream, ByteBuffer output) {
+        final int width = bitsPerSymbol;
+        int count = (int) Math.min(output.remaining(), bitstream.getBitLength() / width);
+        byte[] input = bitstream.getData();
+        byte[] decoded = output.hasArray() ? output.array() : new byte[count];
+        int start = output.hasArray() ? output.arrayOffset() + output.position() : 0;
+
+        if (isIdentity) {
+            System.arraycopy(input, 0, decoded, start, count);
+        } else {
+            final byte[] symbols = alphabet;
+            final int mask = (1 << width) - 1;
+            int in = 0;
+            int out = start;
+            int end = start + count;
+            // Each group of 'width' bytes holds 8 codewords
+            for (int groupEnd = end - count % 8; out < groupEnd; out += 8) {
+                long group = 0;
+                for (int b = 0; b < width; b++) {
+                    group = (group << 8) | (input[in++] & 0xFF);
+                }
+                for (int k = 0; k < 8; k++) {
+                    decoded[out + k] = symbols[(int) (group >>> ((7 - k) * width)) & mask];
+                }
+            }
+            // Last 0-7 codewords
+            int tail = end - out;
+            if (tail > 0) {
+                long group = 0;
+                int tailBytes = (tail * width + 7) / 8;
+                for (int b = 0; b < tailBytes; b++) {
+                    group = (group << 8) | (input[in++] & 0xFF);
+                }
+                int extraBits = tailBytes * 8 - tail * width;
+                for (int k = 0; k < tail; k++) {
+                    decoded[out + k] = symbols[(int) (group >>> (extraBits + (tail - 1 - k) * width)) & mask];
+                }
+            }
+        }
+
+        if (output.hasArray()) {
+            output.position(output.position() + count);
+        } else {
+            output.put(decoded, 0, count);
+        }
+    }
+
+    // The bytes between position and limit as an array (no copy for a whole heap buffer)
+    private static byte[] toArray(ByteBuffer data) {
+        if (data.hasArray() && data.arrayOffset() == 0 && data.position() == 0
+                && data.limit() == data.array().length) {
+            return data.array();
+        }
+        byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+        return bytes;
+    }
+
     /**
      * Calculates the total encoded length in bits.
      */
     public long getEncodedBitsLength(String text) {
-        // Encoded size in bits is simply (number of characters * 8)
-        return (long) text.length() * BITS_PER_CHAR;
+        // Encoded size in bits is simply (number of bytes * 8)
+        return (long) text.getBytes().length * BITS_PER_CHAR;
     }
 
     /**
      * Calculates the compressed file size in bytes.
      */
     public long getCompressedSizeInBytes(String text) {
-        // Compressed size equals the original size in bytes.
-        return (long) text.length();
+        // Compressed size equals the original size in bytes (not in chars, which differ for non-ASCII text).
+        return (long) text.getBytes().length;
     }
 
     /**
@@ -74,15 +308,16 @@ public class FixedLengthEncoder {
      * and converting each block back to a character.
      */
     public String decode(String encodedBitstream) {
-        StringBuilder decodedText = new StringBuilder();
+        byte[] decodedBytes = new byte[encodedBitstream.length() / 8];
         String codeword;
         // Process stream in block of 8 bits
         for (int i = 0; i < encodedBitstream.length(); i = i + 8) {
             codeword = encodedBitstream.substring(i, i + 8);
-            decodedText.append(from8BitBinary(codeword));
+            decodedBytes[i / 8] = (byte) from8BitBinary(codeword);
         }
 
-        return decodedText.toString();
+        // The codewords are bytes, so the text is rebuilt the same way the file was read
+        return new String(decodedBytes);
     }
 
     // Convert an 8-bit binary string back to its corresponding character
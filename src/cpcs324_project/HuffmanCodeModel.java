@@ -0,0 +1,158 @@
+package cpcs324_project;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Immutable Huffman code over byte values: the canonical code, the encode
+ * arrays and the decode table, built once.
+ *
+ * A model has no per-call state, so one instance can be shared by any
+ * number of threads without locking. The scratch state of a call (the bit
+ * buffer) lives in a HuffmanContext, which is taken from a pool and returned
+ * after the call.
+ */
+public final class HuffmanCodeModel {
+
+    private final CanonicalHuffmanCode code;
+    private final int[] codeBits;      // Codeword of each byte value (right-aligned)
+    private final byte[] codeLengths;  // Codeword length of each byte value (0 = unused)
+    private final HuffmanDecodeTable table;
+
+    private HuffmanCodeModel(CanonicalHuffmanCode code) {
+        this.code = code;
+        this.codeBits = new int[256];
+        this.codeLengths = new byte[256];
+        for (int i = 0; i < code.getSymbolCount(); i++) {
+            char symbol = code.getSymbol(i);
+            if (symbol > 255) {
+                throw new IllegalArgumentException("Not a byte code, symbol " + (int) symbol);
+            }
+            codeBits[symbol] = code.getCode(i);
+            codeLengths[symbol] = (byte) code.getLength(i);
+        }
+        this.table = new HuffmanDecodeTable(code);
+    }
+
+    /**
+     * Creates the model of an existing canonical code (e.g. read from a header,
+     * a CodeTableCache entry or a trained dictionary).
+     */
+    public static HuffmanCodeModel of(CanonicalHuffmanCode code) {
+        return new HuffmanCodeModel(code);
+    }
+
+    /**
+     * Builds the model from a byte histogram.
+     * @param histogram 256 counters indexed by byte value.
+     */
+    public static HuffmanCodeModel build(long[] histogram) {
+        HuffmanEncoder encoder = new HuffmanEncoder();
+        encoder.buildCodes(histogram);
+        return new HuffmanCodeModel(encoder.getCanonicalCode());
+    }
+
+    /**
+     * Builds the model from the bytes of a sample (between position and limit).
+     */
+    public static HuffmanCodeModel build(ByteBuffer sample) {
+        long[] histogram = new long[256];
+        HuffmanEncoder.countBytesUnrolled(sample, histogram);
+        return build(histogram);
+    }
+
+    /**
+     * Returns true if every byte value with a non-zero count has a codeword.
+     */
+    public boolean canEncode(long[] histogram) {
+        for (int symbol = 0; symbol < 256; symbol++) {
+            if (histogram[symbol] > 0 && codeLengths[symbol] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the codewords of the bytes between position and limit
+     * (position is not changed). Only reads the model, so it is thread-safe.
+     * @param data The bytes to encode; each must have a codeword.
+     * @param writer Receives the codewords.
+     */
+    public void encode(ByteBuffer data, BitWriter writer) {
+        final int[] bits = codeBits;
+        final byte[] lengths = codeLengths;
+        int end = data.limit();
+
+        if (data.hasArray()) {
+            byte[] bytes = data.array();
+            int offset = data.arrayOffset();
+            for (int i = data.position(); i < end; i++) {
+                int symbol = bytes[offset + i] & 0xFF;
+                checkSymbol(lengths, symbol);
+                writer.writeBits(bits[symbol], lengths[symbol]);
+            }
+        } else {
+            for (int i = data.position(); i < end; i++) {
+                int symbol = data.get(i) & 0xFF;
+                checkSymbol(lengths, symbol);
+                writer.writeBits(bits[symbol], lengths[symbol]);
+            }
+        }
+    }
+
+    // A byte without a codeword would be written as zero bits and lost
+    private static void checkSymbol(byte[] lengths, int symbol) {
+        if (lengths[symbol] == 0) {
+            throw new IllegalArgumentException("Byte " + symbol + " has no codeword in this model");
+        }
+    }
+
+    /**
+     * Decodes symbols from the reader until the output buffer is full.
+     * @param reader The packed codewords.
+     * @param output Receives exactly output.remaining() decoded bytes.
+     */
+    public void decode(BitReader reader, ByteBuffer output) {
+        while (output.hasRemaining()) {
+            output.put((byte) table.decodeSymbol(reader));
+        }
+    }
+
+    /**
+     * Encodes the bytes with a pooled context (convenience for one call).
+     * @return The packed encoded bitstream.
+     */
+    public PackedBitstream encode(ByteBuffer data) {
+        HuffmanContext context = HuffmanContext.acquire();
+        try {
+            return context.encode(this, data);
+        } finally {
+            context.release();
+        }
+    }
+
+    /**
+     * Decodes a packed bitstream until the output buffer is full.
+     */
+    public void decode(PackedBitstream bitstream, ByteBuffer output) {
+        decode(new BitReader(bitstream), output);
+    }
+
+    public CanonicalHuffmanCode getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the serialized (symbol, length) header of the code.
+     */
+    public byte[] getHeader() {
+        return code.toHeaderBytes();
+    }
+
+    /**
+     * Returns the codeword length of a byte value (0 = no codeword).
+     */
+    public int getCodeLength(int symbol) {
+        return codeLengths[symbol];
+    }
+}
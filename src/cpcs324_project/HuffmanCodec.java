@@ -0,0 +1,67 @@
+package cpcs324_project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Codec adapter for the order-0 HuffmanEncoder.
+ *
+ * Layout: u64 original size, canonical code table, packed payload.
+ */
+public class HuffmanCodec implements Codec {
+
+    private final int maxCodeLength;
+
+    public HuffmanCodec() {
+        this(CanonicalHuffmanCode.MAX_CODE_LENGTH);
+    }
+
+    /**
+     * @param maxCodeLength The longest allowed codeword (see HuffmanEncoder.setMaxCodeLength).
+     */
+    public HuffmanCodec(int maxCodeLength) {
+        this.maxCodeLength = maxCodeLength;
+    }
+
+    @Override
+    public String getName() {
+        return maxCodeLength < CanonicalHuffmanCode.MAX_CODE_LENGTH ? "Huffman L<=" + maxCodeLength : "Huffman";
+    }
+
+    @Override
+    public ByteBuffer compress(ByteBuffer input) {
+        HuffmanEncoder encoder = new HuffmanEncoder();
+        encoder.setMaxCodeLength(maxCodeLength);
+        PackedBitstream payload = encoder.encode(input);
+        byte[] codeTable = encoder.getCodeHeader();
+
+        ByteBuffer output = ByteBuffer.allocate(8 + codeTable.length + payload.getData().length);
+        output.putLong(input.remaining());
+        output.put(codeTable);
+        output.put(payload.getData());
+        output.flip();
+        return output;
+    }
+
+    @Override
+    public ByteBuffer decompress(ByteBuffer compressed) throws IOException {
+        ByteBuffer input = compressed.duplicate();
+        int originalSize = CodecHeaders.readSize(input);
+        CanonicalHuffmanCode code = CanonicalHuffmanCode.readHeader(CodecHeaders.asDataInput(input));
+        PackedBitstream payload = CodecHeaders.remainingBits(input);
+
+        ByteBuffer output = ByteBuffer.allocate(originalSize);
+        if (originalSize > 0) {
+            HuffmanEncoder.decode(code, payload, output);
+        }
+        output.flip();
+        return output;
+    }
+
+    @Override
+    public int getMaxCodeLength(ByteBuffer compressed) throws IOException {
+        ByteBuffer input = compressed.duplicate();
+        CodecHeaders.readSize(input);
+        return CanonicalHuffmanCode.readHeader(CodecHeaders.asDataInput(input)).getMaxLength();
+    }
+}
@@ -0,0 +1,89 @@
+package cpcs324_project;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-call scratch state for encoding with a shared HuffmanCodeModel:
+ * a reusable output bit buffer.
+ *
+ * Contexts are kept in a lock-free pool instead of a ThreadLocal, so short
+ * tasks on many (pooled or short-lived) threads reuse the same few buffers.
+ * A context must be used by one thread at a time, between acquire() and release().
+ */
+public final class HuffmanContext {
+
+    // Contexts kept in the pool; more can exist while many calls run at once
+    public static final int MAX_POOLED = 64;
+
+    // Output buffers above this size are not kept (a big call should not pin memory)
+    private static final int MAX_POOLED_BUFFER = 1 << 20;
+
+    private static final ConcurrentLinkedQueue<HuffmanContext> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOL_SIZE = new AtomicInteger();
+    private static final AtomicInteger CREATED = new AtomicInteger();
+
+    private BitWriter writer = new BitWriter(4096);
+    private boolean inUse; // Between acquire() and release()
+
+    private HuffmanContext() {
+        CREATED.incrementAndGet();
+    }
+
+    /**
+     * Takes a context from the pool, or creates one if the pool is empty.
+     */
+    public static HuffmanContext acquire() {
+        HuffmanContext context = POOL.poll();
+        if (context == null) {
+            context = new HuffmanContext();
+        } else {
+            POOL_SIZE.decrementAndGet();
+        }
+        context.inUse = true;
+        return context;
+    }
+
+    /**
+     * Returns the context to the pool. It must not be used afterwards.
+     * @throws IllegalStateException If the context was already released.
+     */
+    public void release() {
+        checkInUse();
+        inUse = false;
+        if (writer.getCapacity() > MAX_POOLED_BUFFER) {
+            writer = new BitWriter(4096);
+        }
+        if (POOL_SIZE.incrementAndGet() <= MAX_POOLED) {
+            POOL.offer(this);
+        } else {
+            POOL_SIZE.decrementAndGet();
+        }
+    }
+
+    /**
+     * Encodes the bytes with a shared model into the reused bit buffer.
+     * @return A packed copy of the encoded bits (owned by the caller).
+     */
+    public PackedBitstream encode(HuffmanCodeModel model, ByteBuffer data) {
+        checkInUse();
+        writer.reset();
+        model.encode(data, writer);
+        return writer.toBitstream();
+    }
+
+    /**
+     * Returns the number of contexts created so far (pool misses).
+     */
+    public static int getCreatedCount() {
+        return CREATED.get();
+    }
+
+    // A released context may already belong to another caller: pooling it twice would share it
+    private void checkInUse() {
+        if (!inUse) {
+            throw new IllegalStateException("HuffmanContext used after release()");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package cpcs324_project;
+
+import java.util.Arrays;
+
+/**
+ * Table-driven Huffman decoder.
+ *
+ * Instead of following one tree pointer per bit, the decoder peeks
+ * 'lookupBits' bits at once and resolves the symbol and its code length
+ * with a single array access. Codes longer than 'lookupBits' fall back
+ * to canonical decoding (first code + count per length), so the table is
+ * built from a CanonicalHuffmanCode without allocating a tree.
+ */
+public class HuffmanDecodeTable {
+
+    // Default number of bits resolved by one table lookup (1024 entries)
+    public static final int DEFAULT_LOOKUP_BITS = 10;
+
+    // Codes up to this length (e.g. length-limited codes) get a table that holds every codeword
+    public static final int MAX_FULL_LOOKUP_BITS = 12;
+
+    private final int lookupBits;
+    // Entry >= 0: (symbol << 8) | codeLength
+    // Entry <  0: the code is longer than lookupBits (fallback path)
+    private final int[] entries;
+
+    // Canonical decoding data used by the fallback path
+    private final char[] symbols;     // Symbols in canonical order
+    private final long[] firstCode;   // First codeword of each length
+    private final int[] firstIndex;   // Index in symbols[] of that first codeword
+    private final int[] lengthCount;  // Number of codes of each length
+    private final int maxLength;
+
+    /**
+     * Builds the lookup table for a canonical code. When the longest code has at
+     * most MAX_FULL_LOOKUP_BITS bits the table covers it, so every symbol is
+     * decoded with one lookup and the fallback path is never taken.
+     */
+    public HuffmanDecodeTable(CanonicalHuffmanCode code) {
+        this(code, code.getMaxLength() <= MAX_FULL_LOOKUP_BITS
+                ? Math.max(code.getMaxLength(), 1) : DEFAULT_LOOKUP_BITS);
+    }
+
+    /**
+     * Builds the lookup table from a canonical code.
+     * @param code The canonical Huffman code.
+     * @param lookupBits The number of bits resolved per lookup.
+     */
+    public HuffmanDecodeTable(CanonicalHuffmanCode code, int lookupBits) {
+        this.lookupBits = lookupBits;
+        this.entries = new int[1 << lookupBits];
+        Arrays.fill(entries, -1);
+
+        int n = code.getSymbolCount();
+        this.maxLength = code.getMaxLength();
+        this.symbols = new char[n];
+        this.firstCode = new long[maxLength + 1];
+        this.firstIndex = new int[maxLength + 1];
+        this.lengthCount = new int[maxLength + 1];
+
+        for (int i = 0; i < n; i++) {
+            int length = code.getLength(i);
+            long codeword = code.getCode(i) & 0xFFFFFFFFL;
+            symbols[i] = code.getSymbol(i);
+
+            // Symbols are in canonical order, so the first one of each length starts the run
+            if (lengthCount[length] == 0) {
+                firstCode[length] = codeword;
+                firstIndex[length] = i;
+            }
+            lengthCount[length]++;
+
+            if (length <= lookupBits) {
+                // A code of length d owns 2^(lookupBits - d) consecutive slots
+                int first = (int) codeword << (lookupBits - length);
+                int last = first + (1 << (lookupBits - length));
+                int entry = (symbols[i] << 8) | length;
+                for (int slot = first; slot < last; slot++) {
+                    entries[slot] = entry;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes one symbol from the reader and consumes its codeword.
+     */
+    public char decodeSymbol(BitReader reader) {
+        int entry = entries[reader.peekBits(lookupBits)];
+        if (entry >= 0) {
+            reader.skipBits(entry & 0xFF);
+            return (char) (entry >>> 8);
+        }
+
+        // Fallback path for codes longer than lookupBits
+        long codeword = reader.peekBits(lookupBits);
+        reader.skipBits(lookupBits);
+        for (int length = lookupBits + 1; length <= maxLength; length++) {
+            codeword = (codeword << 1) | reader.readBit();
+            long offset = codeword - firstCode[length];
+            if (lengthCount[length] > 0 && offset >= 0 && offset < lengthCount[length]) {
+                return symbols[firstIndex[length] + (int) offset];
+            }
+        }
+        throw new IllegalStateException("Invalid Huffman codeword in bitstream");
+    }
+}
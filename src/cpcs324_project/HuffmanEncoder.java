@@ -1,7 +1,9 @@
 
 package cpcs324_project;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.HashMap;
@@ -11,37 +13,308 @@ import java.util.PriorityQueue;
 /**
  * Implements Huffman compression and decompression.
  * This class:
- * - Calculates character frequencies
+ * - Calculates byte frequencies (every byte value is a symbol)
  * - Builds the Huffman tree
  * - Generates prefix-free codewords
  * - Encodes text into a compressed bitstream
  * - Decodes the bitstream back to the original text
+ *
+ * An encoder keeps the state of its last input and is not thread-safe.
+ * To share one code between threads use toModel() (HuffmanCodeModel).
  */
 
 public class HuffmanEncoder {
 
-    private Map<Character, String> huffmanCodes = new HashMap<>(); // Stores the final generated codewords
-    private Map<Character, Integer> charFrequencies = new HashMap<>(); // Stores character frequencies
+    /**
+     * Selects how a packed bitstream is decoded.
+     * TREE_WALK is the simple bit-by-bit reference implementation,
+     * LOOKUP_TABLE resolves several bits per step with HuffmanDecodeTable.
+     */
+    public enum DecodeMode {
+        TREE_WALK,
+        LOOKUP_TABLE
+    }
+
+    /**
+     * Selects how the Huffman tree (the code lengths) is built.
+     * PRIORITY_QUEUE is the original HuffmanNode heap, O(n log n).
+     * TWO_QUEUE sorts the frequencies once and merges in O(n) over flat arrays
+     * (see TwoQueueHuffmanBuilder). Both give optimal codes of the same total size.
+     */
+    public enum TreeConstruction {
+        PRIORITY_QUEUE,
+        TWO_QUEUE
+    }
+
+    private TreeConstruction treeConstruction = TreeConstruction.TWO_QUEUE;
+    private int maxCodeLength = CanonicalHuffmanCode.MAX_CODE_LENGTH; // Longest allowed codeword
+    private int[] codeBits = new int[256];     // Codeword of each byte value (right-aligned)
+    private byte[] codeLengths = new byte[256]; // Codeword length of each byte value (0 = unused)
+    private long[] frequencies = new long[256]; // Byte histogram (symbol = byte value)
     private HuffmanNode root; // The root of the Huffman Tree
+    private CanonicalHuffmanCode canonicalCode; // Canonical codes derived from the tree's code lengths
+
+    /**
+     * Calculates the frequency of each byte value in the input. (Req. 2.a)
+     * Uses a primitive histogram instead of a boxed map.
+     */
+    private void calculateFrequencies(ByteBuffer data) {
+        long start = HuffmanMetrics.start();
+        long allocated = HuffmanMetrics.allocated();
+        frequencies = new long[256];
+        countBytesUnrolled(data, frequencies);
+        HuffmanMetrics.record(HuffmanMetrics.Phase.COUNT, start, allocated, data.remaining(), data.remaining());
+    }
+
+    /**
+     * Adds the count of each byte value in the buffer to the histogram.
+     * Simple single-table version, kept as the reference implementation.
+     * @param data The bytes between position and limit are counted (position is not changed).
+     * @param histogram 256 counters indexed by byte value.
+     */
+    public static void countBytes(ByteBuffer data, long[] histogram) {
+        ByteBuffer input = data.duplicate();
+        while (input.hasRemaining()) {
+            histogram[input.get() & 0xFF]++;
+        }
+    }
+
+    /**
+     * Adds the count of each byte value in the buffer to the histogram.
+     * Four bytes are counted per iteration into four separate tables, so runs
+     * of the same byte do not wait on the previous increment of the same
+     * counter (store-to-load stall). The tables are summed at the end.
+     * Can be called once per chunk to count a file that does not fit in memory.
+     * @param data The bytes between position and limit are counted (position is not changed).
+     * @param histogram 256 counters indexed by byte value.
+     */
+    public static void countBytesUnrolled(ByteBuffer data, long[] histogram) {
+        // A buffer holds at most 2^31 bytes, so each int table cannot overflow
+        int[] count0 = new int[256];
+        int[] count1 = new int[256];
+        int[] count2 = new int[256];
+        int[] count3 = new int[256];
+
+        int i = data.position();
+        int end = data.limit();
+        if (data.hasArray()) {
+            byte[] bytes = data.array();
+            int offset = data.arrayOffset();
+            for (; i + 3 < end; i += 4) {
+                count0[bytes[offset + i] & 0xFF]++;
+                count1[bytes[offset + i + 1] & 0xFF]++;
+                count2[bytes[offset + i + 2] & 0xFF]++;
+                count3[bytes[offset + i + 3] & 0xFF]++;
+            }
+        } else {
+            // Direct and memory-mapped buffers: absolute gets, no copy
+            for (; i + 3 < end; i += 4) {
+                count0[data.get(i) & 0xFF]++;
+                count1[data.get(i + 1) & 0xFF]++;
+                count2[data.get(i + 2) & 0xFF]++;
+                count3[data.get(i + 3) & 0xFF]++;
+            }
+        }
+        for (; i < end; i++) {
+            count0[data.get(i) & 0xFF]++;
+        }
+
+        for (int symbol = 0; symbol < 256; symbol++) {
+            histogram[symbol] += (long) count0[symbol] + count1[symbol] + count2[symbol] + count3[symbol];
+        }
+    }
+
+    /**
+     * Builds the tree and canonical codes from a byte histogram.
+     * Bytes are used as symbols 0..255 (stored as chars). Any histogram of up
+     * to 65536 symbols works the same way (see SymbolHuffmanEncoder).
+     * HuffmanNode frequencies are ints, so when the total count would overflow
+     * (inputs over 2 GB) every count is scaled down, keeping non-zero counts at least 1.
+     * @param histogram 256 counters indexed by byte value.
+     */
+    public void buildCodes(long[] histogram) {
+        frequencies = histogram.clone();
+        buildCodes();
+    }
 
     /**
-     * Calculates the frequency of each character in the input text. (Req. 2.a)
+     * Runs the remaining main steps of the Huffman algorithm on the histogram.
+     * The tree only supplies the code lengths; the final codewords are the
+     * canonical ones, so they can be rebuilt from the (symbol, length) header.
      */
-    private void calculateFrequencies(String text) {
-        for (char character : text.toCharArray()) {
-            charFrequencies.put(character, charFrequencies.getOrDefault(character, 0) + 1);
+    private void buildCodes() {
+        long start = HuffmanMetrics.start();
+        long allocated = HuffmanMetrics.allocated();
+        if (treeConstruction == TreeConstruction.PRIORITY_QUEUE) {
+            buildHuffmanTree();
+            if (depth(root) <= maxCodeLength) {
+                canonicalCode = CanonicalHuffmanCode.fromTree(this.root);
+            } else {
+                canonicalCode = CanonicalHuffmanCode.fromLengths(PackageMergeBuilder.buildCodeLengths(frequencies, maxCodeLength));
+            }
+        } else {
+            int[] lengths = TwoQueueHuffmanBuilder.buildCodeLengths(frequencies);
+            int longest = 0;
+            for (int length : lengths) {
+                longest = Math.max(longest, length);
+            }
+            // Package-merge only runs when the plain Huffman code is too long
+            if (longest > maxCodeLength) {
+                lengths = PackageMergeBuilder.buildCodeLengths(frequencies, maxCodeLength);
+            }
+            canonicalCode = CanonicalHuffmanCode.fromLengths(lengths);
         }
+        this.root = canonicalCode.buildTree(); // Tree matching the canonical codes (tree-walk decoder)
+        HuffmanMetrics.record(HuffmanMetrics.Phase.TREE_BUILD, start, allocated, 0, canonicalCode.getSymbolCount());
+        HuffmanMetrics.recordCode(canonicalCode);
+        generateCodes();
+    }
+
+    /**
+     * Uses a prebuilt code (from a CodeTableCache or a trained dictionary)
+     * for the following encode(ByteBuffer, BitWriter) calls: no counting and
+     * no tree building. The code must cover all 256 byte values, since the
+     * bytes are not checked while encoding (the cached and trained codes do).
+     * @throws IllegalArgumentException If a byte value has no codeword.
+     */
+    public void useCode(CanonicalHuffmanCode code) {
+        // A byte without a codeword would be written as zero bits and lost
+        boolean[] covered = new boolean[256];
+        for (int i = 0; i < code.getSymbolCount(); i++) {
+            char symbol = code.getSymbol(i);
+            if (symbol > 255) {
+                throw new IllegalArgumentException("Not a byte code, symbol " + (int) symbol);
+            }
+            covered[symbol] = true;
+        }
+        for (int value = 0; value < 256; value++) {
+            if (!covered[value]) {
+                throw new IllegalArgumentException("Byte " + value + " has no codeword in this code");
+            }
+        }
+
+        frequencies = new long[256]; // Not counted
+        canonicalCode = code;
+        this.root = null; // Built on demand, only the tree-walk decoders need it
+        generateCodes();
+    }
+
+    /**
+     * Encodes raw bytes with a cached code for inputs with a similar histogram.
+     * Only the byte counting runs per call; on a cache hit the tree and the
+     * codes are reused. The returned code header is the cached one.
+     * @param data The bytes between position and limit are encoded (position is not changed).
+     * @param cache The code table cache (may be shared by several encoders).
+     * @return The packed encoded bitstream.
+     */
+    public PackedBitstream encode(ByteBuffer data, CodeTableCache cache) {
+        long start = HuffmanMetrics.start();
+        long allocated = HuffmanMetrics.allocated();
+        long[] histogram = new long[256];
+        countBytesUnrolled(data, histogram);
+        HuffmanMetrics.record(HuffmanMetrics.Phase.COUNT, start, allocated, data.remaining(), data.remaining());
+        useCode(cache.get(histogram));
+        frequencies = histogram;
+
+        BitWriter writer = new BitWriter(data.remaining() / 2);
+        encode(data, writer);
+        return toBitstream(writer);
+    }
+
+    /**
+     * Clears the histogram, the codes and the tree, so the encoder can be
+     * reused for an unrelated input. The settings (tree construction and
+     * code length limit) are kept.
+     */
+    public void reset() {
+        frequencies = new long[256];
+        codeBits = new int[256];
+        codeLengths = new byte[256];
+        root = null;
+        canonicalCode = null;
+    }
+
+    /**
+     * Returns an immutable, thread-safe model of the current code.
+     */
+    public HuffmanCodeModel toModel() {
+        checkCodeBuilt();
+        return HuffmanCodeModel.of(canonicalCode);
+    }
+
+    // After reset() every codeword is empty, so encoding would silently write nothing
+    private void checkCodeBuilt() {
+        if (canonicalCode == null) {
+            throw new IllegalStateException("No code has been built yet");
+        }
+    }
+
+    // Tree matching the canonical code, built the first time it is needed
+    private HuffmanNode treeRoot() {
+        if (root == null && canonicalCode != null) {
+            root = canonicalCode.buildTree();
+        }
+        return root;
+    }
+
+    // Length of the longest root-to-leaf path (the longest codeword)
+    private static int depth(HuffmanNode node) {
+        if (node == null || (node.left == null && node.right == null)) return 0;
+        return 1 + Math.max(depth(node.left), depth(node.right));
+    }
+
+    /**
+     * Limits the codeword length of the next encode or buildCodes call.
+     * When the Huffman code is longer, the optimal code within the limit is
+     * built with package-merge (slightly larger output, but every code fits a
+     * fixed-width decode table). The default is CanonicalHuffmanCode.MAX_CODE_LENGTH.
+     * @param maxCodeLength The longest allowed code length (1..32).
+     */
+    public void setMaxCodeLength(int maxCodeLength) {
+        if (maxCodeLength < 1 || maxCodeLength > CanonicalHuffmanCode.MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Code length limit must be between 1 and "
+                    + CanonicalHuffmanCode.MAX_CODE_LENGTH + ": " + maxCodeLength);
+        }
+        this.maxCodeLength = maxCodeLength;
+    }
+
+    public int getMaxCodeLength() {
+        return maxCodeLength;
+    }
+
+    /**
+     * Selects the tree construction used by the next encode or buildCodes call.
+     */
+    public void setTreeConstruction(TreeConstruction treeConstruction) {
+        this.treeConstruction = treeConstruction;
+    }
+
+    public TreeConstruction getTreeConstruction() {
+        return treeConstruction;
     }
 
     /**
      * Builds the Huffman Tree using a PriorityQueue (Greedy approach). (Req. 2.b & 2.c)
+     * Package-private so the JMH benchmarks can time this step alone.
      */
-    private void buildHuffmanTree() {
+    void buildHuffmanTree() {
         PriorityQueue<HuffmanNode> pq = new PriorityQueue<>(); 
 
-        // 1. Add all leaf nodes (characters) to the priority queue
-        for (Map.Entry<Character, Integer> entry : charFrequencies.entrySet()) {
-            pq.add(new HuffmanNode(entry.getKey(), entry.getValue()));
+        // Scale the counts down if their total would overflow an int frequency
+        long total = 0;
+        for (long count : frequencies) {
+            total += count;
+        }
+        int shift = 0;
+        while ((total >> shift) + frequencies.length > Integer.MAX_VALUE) {
+            shift++;
+        }
+
+        // 1. Add all leaf nodes (byte values) to the priority queue
+        for (int symbol = 0; symbol < frequencies.length; symbol++) {
+            if (frequencies[symbol] > 0) {
+                pq.add(new HuffmanNode((char) symbol, (int) Math.max(1, frequencies[symbol] >> shift)));
+            }
         }
         
         // 2. Greedily combine the two lowest frequency nodes until only one remains
@@ -60,22 +333,22 @@ public class HuffmanEncoder {
     }
 
     /**
-     * Generates the prefix-free Huffman codewords via recursive traversal (DFS). (Req. 2.d)
-     * @param node The current node in the tree.
-     * @param code The bit string generated so far.
+     * Generates the prefix-free Huffman codewords. (Req. 2.d)
+     * Codewords are stored as (int bits, byte length) arrays indexed by symbol,
+     * taken directly from the canonical code, so no String is built.
+     * Package-private so the JMH benchmarks can time this step alone.
      */
-    private void generateCodes(HuffmanNode node, String code) {
-        if (node == null) return;
-
-        // If it's a leaf node, we have found the final codeword for the character
-        if (node.left == null && node.right == null) {
-            huffmanCodes.put(node.data, code);
-            return;
+    void generateCodes() {
+        long start = HuffmanMetrics.start();
+        long allocated = HuffmanMetrics.allocated();
+        codeBits = new int[frequencies.length];
+        codeLengths = new byte[frequencies.length];
+        for (int i = 0; i < canonicalCode.getSymbolCount(); i++) {
+            char symbol = canonicalCode.getSymbol(i);
+            codeBits[symbol] = canonicalCode.getCode(i);
+            codeLengths[symbol] = (byte) canonicalCode.getLength(i);
         }
-
-        // Traverse left (assign '0') and right (assign '1')
-        generateCodes(node.left, code + "0"); 
-        generateCodes(node.right, code + "1"); 
+        HuffmanMetrics.record(HuffmanMetrics.Phase.CODE_GEN, start, allocated, 0, canonicalCode.getSymbolCount());
     }
 
     /**
@@ -84,31 +357,128 @@ public class HuffmanEncoder {
      * @return The encoded bitstream (a String of '0's and '1's).
      */
     public String encode(String fileName) throws IOException {
-        // Read the entire file content (Java 8 compatible)
-        String text = new String(Files.readAllBytes(Paths.get(fileName)));
+        // Read the entire file content; every byte is a symbol
+        byte[] text = Files.readAllBytes(Paths.get(fileName));
 
         // Run the 3 main steps of the Huffman algorithm
-        calculateFrequencies(text);
-        buildHuffmanTree();
-        generateCodes(this.root, "");
+        calculateFrequencies(ByteBuffer.wrap(text));
+        buildCodes();
         
         // Construct the final encoded bitstream
+        String[] codes = codeStrings();
         StringBuilder encodedBitstream = new StringBuilder();
-        for (char character : text.toCharArray()) {
-            encodedBitstream.append(huffmanCodes.get(character));
+        for (byte symbol : text) {
+            encodedBitstream.append(codes[symbol & 0xFF]);
         }
         
         return encodedBitstream.toString();
     }
 
+    /**
+     * Encodes the text file into a packed bitstream (8 bits per byte).
+     * @param fileName The path to the file to be encoded.
+     * @return The packed encoded bitstream.
+     */
+    public PackedBitstream encodeToBits(String fileName) throws IOException {
+        long start = HuffmanMetrics.start();
+        long allocated = HuffmanMetrics.allocated();
+        byte[] data = Files.readAllBytes(Paths.get(fileName));
+        HuffmanMetrics.record(HuffmanMetrics.Phase.READ, start, allocated, data.length, 0);
+        return encode(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Encodes the file as raw bytes, loaded with the selected input mode.
+     * With InputMode.MEMORY_MAPPED counting and encoding run directly over
+     * the mapped file pages (no String or char[] copy).
+     * @param fileName The path to the file to be encoded.
+     * @param mode How the file is loaded.
+     * @return The packed encoded bitstream.
+     */
+    public PackedBitstream encodeToBits(String fileName, InputMode mode) throws IOException {
+        long start = HuffmanMetrics.start();
+        long allocated = HuffmanMetrics.allocated();
+        ByteBuffer data = mode.load(Paths.get(fileName));
+        HuffmanMetrics.record(HuffmanMetrics.Phase.READ, start, allocated, data.remaining(), 0);
+        return encode(data);
+    }
+
+    /**
+     * Encodes raw bytes (e.g. a whole file read through a FileChannel).
+     * Every byte value is a symbol, so any file round-trips exactly.
+     * @param data The bytes between position and limit are encoded (position is not changed).
+     * @return The packed encoded bitstream.
+     */
+    public PackedBitstream encode(ByteBuffer data) {
+        calculateFrequencies(data);
+        buildCodes();
+
+        BitWriter writer = new BitWriter(data.remaining() / 2);
+        encode(data, writer);
+        return toBitstream(writer);
+    }
+
+    // Copies the packed output out of the writer (the WRITE phase)
+    private static PackedBitstream toBitstream(BitWriter writer) {
+        long start = HuffmanMetrics.start();
+        long allocated = HuffmanMetrics.allocated();
+        PackedBitstream bitstream = writer.toBitstream();
+        HuffmanMetrics.record(HuffmanMetrics.Phase.WRITE, start, allocated, bitstream.getData().length, 0);
+        return bitstream;
+    }
+
+    /**
+     * Encodes a chunk of bytes with the codes built by buildCodes(long[]).
+     * Used by the streaming encoder to write each chunk straight to the output.
+     * The loop only does two array loads and a shift into the writer's 64-bit
+     * accumulator per byte, so it allocates nothing.
+     * @param data The bytes between position and limit are encoded (position is not changed).
+     * @param writer Receives the codewords.
+     * @throws IllegalStateException If no code has been built (or since reset()).
+     */
+    public void encode(ByteBuffer data, BitWriter writer) {
+        checkCodeBuilt();
+        long start = HuffmanMetrics.start();
+        long allocated = HuffmanMetrics.allocated();
+        final int[] bits = codeBits;
+        final byte[] lengths = codeLengths;
+        int end = data.limit();
+
+        if (data.hasArray()) {
+            byte[] bytes = data.array();
+            int offset = data.arrayOffset();
+            for (int i = data.position(); i < end; i++) {
+                int symbol = bytes[offset + i] & 0xFF;
+                writer.writeBits(bits[symbol], lengths[symbol]);
+            }
+        } else {
+            // Direct and memory-mapped buffers: absolute gets, no copy
+            for (int i = data.position(); i < end; i++) {
+                int symbol = data.get(i) & 0xFF;
+                writer.writeBits(bits[symbol], lengths[symbol]);
+            }
+        }
+        HuffmanMetrics.record(HuffmanMetrics.Phase.ENCODE, start, allocated, end - data.position(), end - data.position());
+    }
+
+    /**
+     * Replaces the tree codes with canonical codes of the same lengths.
+     * Package-private so the JMH benchmarks can time this step alone.
+     */
+    void buildCanonicalCodes() {
+        canonicalCode = CanonicalHuffmanCode.fromTree(this.root);
+        this.root = canonicalCode.buildTree(); // Tree matching the canonical codes (tree-walk decoder)
+        generateCodes();
+    }
+
     /**
      * Decodes the Huffman bitstream back into the original text. (Req. 2.3)
      * @param encodedBitstream The bit string to decode.
      * @return The recovered original text.
      */
     public String decode(String encodedBitstream) {
-        StringBuilder decodedText = new StringBuilder();
-        HuffmanNode currentNode = this.root; 
+        ByteArrayOutputStream decodedText = new ByteArrayOutputStream();
+        HuffmanNode currentNode = treeRoot(); 
 
         for (char bit : encodedBitstream.toCharArray()) {
             if (bit == '0') {
@@ -119,27 +489,198 @@ public class HuffmanEncoder {
 
             // If we reach a leaf node, we have successfully decoded one character
             if (currentNode.left == null && currentNode.right == null) {
-                decodedText.append(currentNode.data); 
-                currentNode = this.root; // Reset to the root for the next character
+                decodedText.write(currentNode.data); 
+                currentNode = treeRoot(); // Reset to the root for the next character
+            }
+        }
+        return new String(decodedText.toByteArray());
+    }
+    
+    /**
+     * Decodes a packed Huffman bitstream back into the original text
+     * using the lookup-table decoder.
+     * @param bitstream The packed bitstream produced by encodeToBits().
+     * @return The recovered original text.
+     */
+    public String decode(PackedBitstream bitstream) {
+        return decode(bitstream, DecodeMode.LOOKUP_TABLE);
+    }
+
+    /**
+     * Decodes a packed Huffman bitstream using the selected decoder.
+     * @param bitstream The packed bitstream produced by encodeToBits().
+     * @param mode The decoder implementation to use.
+     * @return The recovered original text.
+     */
+    public String decode(PackedBitstream bitstream, DecodeMode mode) {
+        return new String(decodeToBytes(bitstream, mode));
+    }
+
+    /**
+     * Decodes a packed Huffman bitstream into the original bytes.
+     * Unlike the String decoders no charset is involved, so binary files
+     * and any text encoding come back byte for byte.
+     * @param bitstream The packed bitstream produced by encodeToBits().
+     * @param mode The decoder implementation to use.
+     * @return The recovered original bytes.
+     */
+    public byte[] decodeToBytes(PackedBitstream bitstream, DecodeMode mode) {
+        long start = HuffmanMetrics.start();
+        long allocated = HuffmanMetrics.allocated();
+        byte[] decoded;
+        if (mode == DecodeMode.TREE_WALK) {
+            decoded = decodeTreeWalk(bitstream);
+        } else {
+            ByteArrayOutputStream decodedText = new ByteArrayOutputStream();
+            BitReader reader = new BitReader(bitstream);
+            HuffmanDecodeTable table = new HuffmanDecodeTable(this.canonicalCode);
+
+            while (reader.hasMoreBits()) {
+                decodedText.write(table.decodeSymbol(reader));
+            }
+            decoded = decodedText.toByteArray();
+        }
+        HuffmanMetrics.record(HuffmanMetrics.Phase.DECODE, start, allocated, bitstream.getSizeInBytes(), decoded.length);
+        return decoded;
+    }
+
+    /**
+     * Decodes a packed bitstream using only the stored code-length header.
+     * No encoder state (tree or frequencies) is needed, so the payload can be
+     * decoded in another process.
+     * @param header The header produced by getCodeHeader().
+     * @param bitstream The packed bitstream.
+     * @return The recovered original text.
+     */
+    public static String decode(byte[] header, PackedBitstream bitstream) throws IOException {
+        long start = HuffmanMetrics.start();
+        long allocated = HuffmanMetrics.allocated();
+        HuffmanDecodeTable table = new HuffmanDecodeTable(CanonicalHuffmanCode.fromHeaderBytes(header));
+        ByteArrayOutputStream decodedText = new ByteArrayOutputStream();
+        BitReader reader = new BitReader(bitstream);
+
+        while (reader.hasMoreBits()) {
+            decodedText.write(table.decodeSymbol(reader));
+        }
+        HuffmanMetrics.record(HuffmanMetrics.Phase.DECODE, start, allocated, bitstream.getSizeInBytes(), decodedText.size());
+        return new String(decodedText.toByteArray());
+    }
+
+    /**
+     * Reference decoder: follows one tree pointer per input bit.
+     */
+    private byte[] decodeTreeWalk(PackedBitstream bitstream) {
+        ByteArrayOutputStream decodedText = new ByteArrayOutputStream();
+        BitReader reader = new BitReader(bitstream);
+        HuffmanNode currentNode = treeRoot();
+
+        while (reader.hasMoreBits()) {
+            currentNode = (reader.readBit() == 0) ? currentNode.left : currentNode.right;
+
+            // If we reach a leaf node, we have successfully decoded one character
+            if (currentNode.left == null && currentNode.right == null) {
+                decodedText.write(currentNode.data);
+                currentNode = treeRoot();
             }
         }
-        return decodedText.toString();
+        return decodedText.toByteArray();
+    }
+    
+    /**
+     * Decodes a packed bitstream of byte symbols (see encode(ByteBuffer))
+     * until the output buffer is full.
+     * @param code The canonical code read from the stored header.
+     * @param bitstream The packed bitstream.
+     * @param output Receives exactly output.remaining() decoded bytes.
+     */
+    public static void decode(CanonicalHuffmanCode code, PackedBitstream bitstream, ByteBuffer output) {
+        long start = HuffmanMetrics.start();
+        long allocated = HuffmanMetrics.allocated();
+        HuffmanDecodeTable table = new HuffmanDecodeTable(code);
+        BitReader reader = new BitReader(bitstream);
+        int symbols = output.remaining();
+
+        while (output.hasRemaining()) {
+            output.put((byte) table.decodeSymbol(reader));
+        }
+        HuffmanMetrics.record(HuffmanMetrics.Phase.DECODE, start, allocated, (reader.getPosition() + 7) / 8, symbols);
     }
     
     /**
      * Helper method to get the final Huffman codes for display (Req. 2.e).
+     * The codeword Strings are only built here, never on the encode path.
      */
     public Map<Character, String> getHuffmanCodes() {
+        Map<Character, String> huffmanCodes = new HashMap<>();
+        String[] codes = codeStrings();
+        for (int symbol = 0; symbol < codes.length; symbol++) {
+            if (codes[symbol] != null) {
+                huffmanCodes.put((char) symbol, codes[symbol]);
+            }
+        }
         return huffmanCodes;
     }
+
+    // Returns the codewords as '0'/'1' Strings indexed by symbol (null = unused symbol)
+    private String[] codeStrings() {
+        String[] codes = new String[codeLengths.length];
+        for (int symbol = 0; symbol < codes.length; symbol++) {
+            int length = codeLengths[symbol];
+            if (length > 0) {
+                StringBuilder code = new StringBuilder(length);
+                for (int bit = length - 1; bit >= 0; bit--) {
+                    code.append(((codeBits[symbol] >>> bit) & 1) == 0 ? '0' : '1');
+                }
+                codes[symbol] = code.toString();
+            }
+        }
+        return codes;
+    }
     
+    // Codeword bits and lengths indexed by symbol (used by SymbolHuffmanEncoder)
+    int[] getCodeBits() {
+        return codeBits;
+    }
+
+    byte[] getCodeLengths() {
+        return codeLengths;
+    }
+
+    /**
+     * Returns the canonical code built by the last encode call.
+     */
+    public CanonicalHuffmanCode getCanonicalCode() {
+        return canonicalCode;
+    }
+
+    /**
+     * Returns the serialized (symbol, length) header of the canonical code.
+     */
+    public byte[] getCodeHeader() {
+        return canonicalCode.toHeaderBytes();
+    }
+
     /**
      * Helper method to get character frequencies for analysis.
+     * Compatibility view built from the byte histogram (only non-zero counts).
      */
     public Map<Character, Integer> getCharFrequencies() {
+        Map<Character, Integer> charFrequencies = new HashMap<>();
+        for (int symbol = 0; symbol < frequencies.length; symbol++) {
+            if (frequencies[symbol] > 0) {
+                charFrequencies.put((char) symbol, (int) Math.min(frequencies[symbol], Integer.MAX_VALUE));
+            }
+        }
         return charFrequencies;
     }
 
+    /**
+     * Returns the byte histogram of the last encoded input (256 counters).
+     */
+    public long[] getFrequencies() {
+        return frequencies;
+    }
+
     /**
      * Calculates the compressed size of the file in bytes.
      * @param encodedBitstream The bit stream length.
@@ -149,4 +690,13 @@ public class HuffmanEncoder {
         // Size in Bytes = ceil(Total Bits / 8)
         return (long) Math.ceil(encodedBitstream.length() / 8.0);
     }
+
+    /**
+     * Returns the real compressed size of a packed bitstream in bytes.
+     * @param bitstream The packed bitstream.
+     * @return The number of bytes actually used by the packed output.
+     */
+    public long getCompressedSizeInBytes(PackedBitstream bitstream) {
+        return bitstream.getSizeInBytes();
+    }
 }
@@ -0,0 +1,329 @@
+package cpcs324_project;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Self-contained .huf container for Huffman-compressed files.
+ *
+ * Layout (big-endian):
+ * - magic          4 bytes  "HUF1"
+ * - version        1 byte
+ * - original size  8 bytes  (number of bytes in the original file)
+ * - CRC32          4 bytes  (checksum of the original bytes)
+ * - code table     canonical (symbol, length) header, see CanonicalHuffmanCode
+ * - payload bits   8 bytes  (number of meaningful payload bits)
+ * - payload        ceil(payload bits / 8) bytes, packed MSB-first
+ *
+ * Files are read and written through FileChannel/ByteBuffer so the data
+ * is held in memory once, as bytes, never as a String. The streaming
+ * methods produce and read the same format chunk by chunk.
+ */
+public class HuffmanFileFormat {
+
+    public static final int MAGIC = 0x48554631; // "HUF1"
+    public static final byte VERSION = 1;
+
+    // Fixed-size fields before the code table: magic + version + size + CRC32
+    private static final int FIXED_HEADER_SIZE = 4 + 1 + 8 + 4;
+
+    // Chunk size used by the streaming mode
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * Compresses a file into the .huf container.
+     * @param input The file to compress.
+     * @param output The .huf file to create (overwritten if it exists).
+     * @return The size of the written container in bytes.
+     */
+    public static long compress(Path input, Path output) throws IOException {
+        return compress(input, output, InputMode.HEAP_COPY);
+    }
+
+    /**
+     * Compresses a file into the .huf container.
+     * @param input The file to compress.
+     * @param output The .huf file to create (overwritten if it exists).
+     * @param mode How the input file is loaded (heap copy or memory-mapped).
+     * @return The size of the written container in bytes.
+     */
+    public static long compress(Path input, Path output, InputMode mode) throws IOException {
+        long start = HuffmanMetrics.start();
+        long allocated = HuffmanMetrics.allocated();
+        ByteBuffer data = mode.load(input);
+        HuffmanMetrics.record(HuffmanMetrics.Phase.READ, start, allocated, data.remaining(), 0);
+
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+
+        HuffmanEncoder encoder = new HuffmanEncoder();
+        PackedBitstream payload = encoder.encode(data);
+
+        start = HuffmanMetrics.start();
+        allocated = HuffmanMetrics.allocated();
+        try (FileChannel outChannel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(outChannel, buildHeader(data.remaining(), crc.getValue(),
+                    encoder.getCodeHeader(), payload.getBitLength()));
+            writeFully(outChannel, ByteBuffer.wrap(payload.getData()));
+            long size = outChannel.size();
+            HuffmanMetrics.record(HuffmanMetrics.Phase.WRITE, start, allocated, size, 0);
+            return size;
+        }
+    }
+
+    /**
+     * Compresses a file of any size into the .huf container with two passes
+     * over the input. Pass 1 counts byte frequencies (and the CRC32) chunk by
+     * chunk, pass 2 encodes each chunk straight into the output channel.
+     * Memory use is bounded by the chunk size, not by the file size.
+     * @param input The file to compress.
+     * @param output The .huf file to create (overwritten if it exists).
+     * @param chunkSize The size of the read and write buffers in bytes.
+     * @return The size of the written container in bytes.
+     */
+    public static long compressStreaming(Path input, Path output, int chunkSize) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(chunkSize);
+
+        try (FileChannel inChannel = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel outChannel = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            // Pass 1: byte histogram, CRC32 and size
+            long[] histogram = new long[256];
+            CRC32 crc = new CRC32();
+            long originalSize = 0;
+            while (readChunk(inChannel, chunk)) {
+                HuffmanEncoder.countBytesUnrolled(chunk, histogram);
+                crc.update(chunk.duplicate());
+                originalSize += chunk.remaining();
+            }
+
+            HuffmanEncoder encoder = new HuffmanEncoder();
+            encoder.buildCodes(histogram);
+
+            // The payload length is not known yet, it is patched after pass 2
+            writeFully(outChannel, buildHeader(originalSize, crc.getValue(), encoder.getCodeHeader(), 0));
+            long payloadBitsPosition = outChannel.position() - 8;
+
+            // Pass 2: encode each chunk into the buffered output channel
+            inChannel.position(0);
+            BitWriter writer = new BitWriter(outChannel, chunkSize);
+            try {
+                while (readChunk(inChannel, chunk)) {
+                    encoder.encode(chunk, writer);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finish();
+
+            ByteBuffer payloadBits = ByteBuffer.allocate(8);
+            payloadBits.putLong(0, writer.getBitLength());
+            while (payloadBits.hasRemaining()) {
+                outChannel.write(payloadBits, payloadBitsPosition + payloadBits.position());
+            }
+            return outChannel.size();
+        }
+    }
+
+    /**
+     * Restores the original file from a .huf container and verifies its CRC32.
+     * @param input The .huf file.
+     * @param output The restored file (overwritten if it exists).
+     * @return The size of the restored file in bytes.
+     */
+    public static long decompress(Path input, Path output) throws IOException {
+        ByteBuffer restored;
+        Header header;
+        try (FileChannel inChannel = FileChannel.open(input, StandardOpenOption.READ)) {
+            header = readHeader(inChannel, input);
+            long payloadBytes = (header.payloadBits + 7) / 8;
+            if (header.originalSize > Integer.MAX_VALUE || payloadBytes > BitWriter.MAX_BUFFER_SIZE) {
+                throw new IOException("File is too large to decompress in memory, use the streaming mode: " + input);
+            }
+
+            ByteBuffer payload = readFully(inChannel, (int) payloadBytes);
+
+            restored = ByteBuffer.allocate((int) header.originalSize);
+            try {
+                HuffmanEncoder.decode(header.code, new PackedBitstream(payload.array(), header.payloadBits), restored);
+            } catch (IllegalStateException e) {
+                throw new IOException("Invalid codeword, the .huf file is corrupted: " + input, e);
+            }
+            restored.flip();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(restored.duplicate());
+        if (crc.getValue() != header.crc) {
+            throw new IOException("CRC32 mismatch, the .huf file is corrupted: " + input);
+        }
+
+        try (FileChannel outChannel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(outChannel, restored);
+            return outChannel.size();
+        }
+    }
+
+    /**
+     * Restores a .huf container of any size, decoding one chunk at a time.
+     * The payload is read through a fixed-size window, so memory use is
+     * bounded by the chunk size. A corrupted output file is deleted.
+     * @param input The .huf file.
+     * @param output The restored file (overwritten if it exists).
+     * @param chunkSize The size of the read and write buffers in bytes.
+     * @return The size of the restored file in bytes.
+     */
+    public static long decompressStreaming(Path input, Path output, int chunkSize) throws IOException {
+        long restoredSize;
+        String error = null; // Why the output is corrupted, null if it is not
+        try (FileChannel inChannel = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel outChannel = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            Header header = readHeader(inChannel, input);
+            HuffmanDecodeTable table = new HuffmanDecodeTable(header.code);
+            BitReader reader = new BitReader(inChannel, header.payloadBits, chunkSize);
+
+            ByteBuffer chunk = ByteBuffer.allocate(chunkSize);
+            CRC32 crc = new CRC32();
+            long remaining = header.originalSize;
+            try {
+                while (remaining > 0) {
+                    chunk.clear();
+                    chunk.limit((int) Math.min(chunkSize, remaining));
+                    while (chunk.hasRemaining()) {
+                        chunk.put((byte) table.decodeSymbol(reader));
+                    }
+                    // Past the end the reader returns zero bits, which may still decode
+                    if (reader.getPosition() > header.payloadBits) {
+                        error = "Payload ended early";
+                        break;
+                    }
+                    chunk.flip();
+                    remaining -= chunk.remaining();
+                    crc.update(chunk.duplicate());
+                    writeFully(outChannel, chunk);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (IllegalStateException e) {
+                error = "Invalid codeword";
+            }
+
+            if (error == null && crc.getValue() != header.crc) {
+                error = "CRC32 mismatch";
+            }
+            restoredSize = outChannel.size();
+        }
+
+        if (error != null) {
+            Files.deleteIfExists(output);
+            throw new IOException(error + ", the .huf file is corrupted: " + input);
+        }
+        return restoredSize;
+    }
+
+    // Fields of the container header
+    private static class Header {
+        long originalSize;
+        long crc;
+        CanonicalHuffmanCode code;
+        long payloadBits;
+    }
+
+    // Serializes the container header (everything before the payload)
+    private static ByteBuffer buildHeader(long originalSize, long crc, byte[] codeTable, long payloadBits) {
+        ByteBuffer header = ByteBuffer.allocate(FIXED_HEADER_SIZE + codeTable.length + 8);
+        header.putInt(MAGIC);
+        header.put(VERSION);
+        header.putLong(originalSize);
+        header.putInt((int) crc);
+        header.put(codeTable);
+        header.putLong(payloadBits);
+        header.flip();
+        return header;
+    }
+
+    // Reads and validates the container header, leaving the channel at the first payload byte
+    private static Header readHeader(FileChannel channel, Path input) throws IOException {
+        ByteBuffer fixed = readFully(channel, FIXED_HEADER_SIZE);
+        if (fixed.getInt() != MAGIC) {
+            throw new IOException("Not a .huf file: " + input);
+        }
+        byte version = fixed.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported .huf version: " + version);
+        }
+
+        Header header = new Header();
+        header.originalSize = fixed.getLong();
+        header.crc = fixed.getInt() & 0xFFFFFFFFL;
+        header.code = readCodeTable(channel);
+        header.payloadBits = readFully(channel, 8).getLong();
+
+        // The payload must be in the file, and every symbol costs at least one bit
+        if (header.payloadBits < 0 || header.payloadBits > 8 * (channel.size() - channel.position())) {
+            throw new IOException("Invalid payload length, the .huf file is corrupted: " + input);
+        }
+        if (header.originalSize < 0 || header.originalSize > header.payloadBits) {
+            throw new IOException("Invalid original size, the .huf file is corrupted: " + input);
+        }
+        return header;
+    }
+
+    // Reads the next chunk from the channel; returns false at end of file
+    private static boolean readChunk(FileChannel channel, ByteBuffer chunk) throws IOException {
+        chunk.clear();
+        while (chunk.hasRemaining()) {
+            if (channel.read(chunk) < 0) break;
+        }
+        chunk.flip();
+        return chunk.hasRemaining();
+    }
+
+    // Reads the canonical code table: u16 count followed by count (u16 symbol, u8 length) pairs
+    static CanonicalHuffmanCode readCodeTable(FileChannel channel) throws IOException {
+        ByteBuffer countBuffer = readFully(channel, 2);
+        int count = countBuffer.getShort() & 0xFFFF;
+        ByteBuffer pairs = readFully(channel, count * 3);
+
+        byte[] table = new byte[2 + count * 3];
+        countBuffer.rewind();
+        countBuffer.get(table, 0, 2);
+        pairs.get(table, 2, count * 3);
+        try {
+            return CanonicalHuffmanCode.fromHeaderBytes(table);
+        } catch (IllegalArgumentException e) {
+            // Lengths out of range or not a prefix code: the header is corrupted
+            throw new IOException("Invalid code table, the .huf file is corrupted: " + e.getMessage(), e);
+        }
+    }
+
+    // Reads exactly 'size' bytes from the channel into a new buffer (ready for reading)
+    static ByteBuffer readFully(FileChannel channel, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // Writes the whole buffer to the channel
+    static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
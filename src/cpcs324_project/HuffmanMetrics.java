@@ -0,0 +1,362 @@
+package cpcs324_project;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide counters for the phases of HuffmanEncoder (and the .huf file I/O).
+ *
+ * Each phase records its count, a nanosecond histogram (power-of-two
+ * buckets, so percentiles are accurate to a factor of 2), the bytes and
+ * symbols it processed and the bytes the thread allocated meanwhile. Built
+ * codes add their code lengths to a distribution.
+ *
+ * Recording is per call, never per byte, and uses LongAdder and atomic
+ * arrays, so it adds a few hundred nanoseconds per call when enabled and one
+ * volatile read when disabled (the default; -Dhuffman.metrics=true turns it on).
+ * The counters are published through JMX (registerMBean) and, when
+ * setJfrEnabled(true) or -Dhuffman.metrics.jfr=true, as HuffmanPhaseEvent JFR events.
+ */
+public final class HuffmanMetrics implements HuffmanMetricsMXBean {
+
+    /**
+     * The measured steps. READ and WRITE are the file and output buffer copies,
+     * ENCODE is the bit packing, DECODE the whole table-driven decode.
+     */
+    public enum Phase {
+        READ,
+        COUNT,
+        TREE_BUILD,
+        CODE_GEN,
+        ENCODE,
+        WRITE,
+        DECODE
+    }
+
+    public static final String OBJECT_NAME = "cpcs324_project:type=HuffmanMetrics";
+
+    private static final int BUCKETS = 64; // Bucket b holds durations in [2^b, 2^(b+1)) ns
+    private static final int PHASES = Phase.values().length;
+    private static final HuffmanMetrics INSTANCE = new HuffmanMetrics();
+
+    private static volatile boolean enabled = Boolean.getBoolean("huffman.metrics");
+    private static volatile boolean jfrEnabled = Boolean.getBoolean("huffman.metrics.jfr") && isJfrAvailable();
+
+    private final LongAdder[] counts = adders();
+    private final LongAdder[] totalNanos = adders();
+    private final LongAdder[] bytes = adders();
+    private final LongAdder[] symbols = adders();
+    private final LongAdder[] allocatedBytes = adders();
+    private final AtomicLongArray histogram = new AtomicLongArray(PHASES * BUCKETS);
+    private final AtomicLongArray codeLengths = new AtomicLongArray(CanonicalHuffmanCode.MAX_CODE_LENGTH + 1);
+    private final LongAdder codesBuilt = new LongAdder();
+
+    private HuffmanMetrics() {
+    }
+
+    /**
+     * Returns the process-wide instance (the one registered with JMX).
+     */
+    public static HuffmanMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the MBean with the platform MBean server (once, later calls do nothing).
+     */
+    public static void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already registered
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Start time of a phase: System.nanoTime(), or 0 when recording is off.
+     */
+    static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, or 0 when recording is off
+     * or the JVM cannot tell.
+     */
+    static long allocated() {
+        return enabled ? AllocationProbe.allocated() : 0;
+    }
+
+    /**
+     * Records one finished phase.
+     * @param startNanos The value of start() when the phase began.
+     * @param startAllocated The value of allocated() when the phase began.
+     * @param byteCount The bytes processed (input bytes, or output bytes for WRITE).
+     * @param symbolCount The symbols processed.
+     */
+    static void record(Phase phase, long startNanos, long startAllocated, long byteCount, long symbolCount) {
+        if (!enabled || startNanos == 0) return; // Switched on during the phase
+        long nanos = Math.max(0, System.nanoTime() - startNanos);
+        long allocation = AllocationProbe.isSupported() ? Math.max(0, allocated() - startAllocated) : 0;
+        int p = phase.ordinal();
+        INSTANCE.counts[p].increment();
+        INSTANCE.totalNanos[p].add(nanos);
+        INSTANCE.bytes[p].add(byteCount);
+        INSTANCE.symbols[p].add(symbolCount);
+        INSTANCE.allocatedBytes[p].add(allocation);
+        INSTANCE.histogram.incrementAndGet(p * BUCKETS + 63 - Long.numberOfLeadingZeros(nanos | 1));
+        if (jfrEnabled) {
+            HuffmanPhaseEvent.emit(phase.name(), nanos, byteCount, symbolCount, allocation);
+        }
+    }
+
+    /**
+     * Adds the code lengths of a newly built code to the distribution.
+     */
+    static void recordCode(CanonicalHuffmanCode code) {
+        if (!enabled) return;
+        for (int i = 0; i < code.getSymbolCount(); i++) {
+            INSTANCE.codeLengths.incrementAndGet(code.getLength(i));
+        }
+        INSTANCE.codesBuilt.increment();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        HuffmanMetrics.enabled = enabled;
+    }
+
+    @Override
+    public boolean isJfrEnabled() {
+        return jfrEnabled;
+    }
+
+    /**
+     * Emits a HuffmanPhaseEvent per recorded phase (only seen while a JFR recording runs).
+     * @throws UnsupportedOperationException If this JVM has no JFR.
+     */
+    @Override
+    public void setJfrEnabled(boolean jfrEnabled) {
+        if (jfrEnabled && !isJfrAvailable()) {
+            throw new UnsupportedOperationException("JFR is not available on Java " + System.getProperty("java.version"));
+        }
+        HuffmanMetrics.jfrEnabled = jfrEnabled;
+    }
+
+    public long getCount(Phase phase) {
+        return counts[phase.ordinal()].sum();
+    }
+
+    public long getTotalNanos(Phase phase) {
+        return totalNanos[phase.ordinal()].sum();
+    }
+
+    public long getBytes(Phase phase) {
+        return bytes[phase.ordinal()].sum();
+    }
+
+    public long getSymbols(Phase phase) {
+        return symbols[phase.ordinal()].sum();
+    }
+
+    public long getAllocatedBytes(Phase phase) {
+        return allocatedBytes[phase.ordinal()].sum();
+    }
+
+    /**
+     * Returns the upper bound of the histogram bucket that holds the p-th percentile (0 if never recorded).
+     * @param p The percentile, 0..100.
+     */
+    public long getPercentileNanos(Phase phase, double p) {
+        long[] buckets = getHistogram(phase);
+        long total = 0;
+        for (long count : buckets) {
+            total += count;
+        }
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p / 100.0 * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += buckets[b];
+            if (seen >= rank) {
+                return b >= 62 ? Long.MAX_VALUE : (1L << (b + 1)) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the duration histogram of a phase: entry b counts calls of 2^b to 2^(b+1) - 1 ns.
+     */
+    public long[] getHistogram(Phase phase) {
+        long[] buckets = new long[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++) {
+            buckets[b] = histogram.get(phase.ordinal() * BUCKETS + b);
+        }
+        return buckets;
+    }
+
+    /**
+     * Input megabytes per second of the time spent in a phase.
+     */
+    public double getMegabytesPerSecond(Phase phase) {
+        long nanos = getTotalNanos(phase);
+        return nanos == 0 ? 0 : (getBytes(phase) / (1024.0 * 1024.0)) / (nanos / 1e9);
+    }
+
+    @Override
+    public Map<String, Long> getPhaseCounts() {
+        return perPhase(counts);
+    }
+
+    @Override
+    public Map<String, Long> getPhaseTotalNanos() {
+        return perPhase(totalNanos);
+    }
+
+    @Override
+    public Map<String, Long> getPhaseMedianNanos() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            values.put(phase.name(), getPercentileNanos(phase, 50));
+        }
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getPhaseP99Nanos() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            values.put(phase.name(), getPercentileNanos(phase, 99));
+        }
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getPhaseBytes() {
+        return perPhase(bytes);
+    }
+
+    @Override
+    public Map<String, Long> getPhaseSymbols() {
+        return perPhase(symbols);
+    }
+
+    @Override
+    public Map<String, Long> getPhaseAllocatedBytes() {
+        return perPhase(allocatedBytes);
+    }
+
+    /**
+     * Returns how many codewords of each length (index 0..MAX_CODE_LENGTH) the built codes had.
+     */
+    @Override
+    public long[] getCodeLengthDistribution() {
+        long[] distribution = new long[codeLengths.length()];
+        for (int length = 0; length < distribution.length; length++) {
+            distribution[length] = codeLengths.get(length);
+        }
+        return distribution;
+    }
+
+    @Override
+    public long getCodesBuilt() {
+        return codesBuilt.sum();
+    }
+
+    /**
+     * Clears every counter (concurrent recordings may be partly kept).
+     */
+    @Override
+    public void reset() {
+        for (int p = 0; p < PHASES; p++) {
+            counts[p].reset();
+            totalNanos[p].reset();
+            bytes[p].reset();
+            symbols[p].reset();
+            allocatedBytes[p].reset();
+        }
+        for (int i = 0; i < histogram.length(); i++) {
+            histogram.set(i, 0);
+        }
+        for (int i = 0; i < codeLengths.length(); i++) {
+            codeLengths.set(i, 0);
+        }
+        codesBuilt.reset();
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[PHASES];
+        for (int p = 0; p < PHASES; p++) {
+            adders[p] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static Map<String, Long> perPhase(LongAdder[] adders) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            values.put(phase.name(), adders[phase.ordinal()].sum());
+        }
+        return values;
+    }
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Per-thread allocation counters from HotSpot's com.sun.management.ThreadMXBean.
+     * Only this class refers to that JDK-specific type, and it is loaded the
+     * first time allocations are measured, so HuffmanMetrics itself also runs
+     * on JVMs without it (allocations are then reported as 0).
+     */
+    private static final class AllocationProbe {
+
+        private static final com.sun.management.ThreadMXBean BEAN = allocationBean(); // null if not supported
+
+        static boolean isSupported() {
+            return BEAN != null;
+        }
+
+        static long allocated() {
+            return BEAN != null ? BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+        }
+
+        private static com.sun.management.ThreadMXBean allocationBean() {
+            try {
+                Class.forName("com.sun.management.ThreadMXBean");
+            } catch (ClassNotFoundException e) {
+                return null;
+            }
+            Object threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+                if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                    return hotspot;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package cpcs324_project;
+
+import java.util.Map;
+
+/**
+ * JMX view of HuffmanMetrics (registered as HuffmanMetrics.OBJECT_NAME).
+ * The per-phase maps are keyed by phase name and show up as tables in JConsole.
+ */
+public interface HuffmanMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    boolean isJfrEnabled();
+
+    void setJfrEnabled(boolean jfrEnabled);
+
+    Map<String, Long> getPhaseCounts();
+
+    Map<String, Long> getPhaseTotalNanos();
+
+    Map<String, Long> getPhaseMedianNanos();
+
+    Map<String, Long> getPhaseP99Nanos();
+
+    Map<String, Long> getPhaseBytes();
+
+    Map<String, Long> getPhaseSymbols();
+
+    Map<String, Long> getPhaseAllocatedBytes();
+
+    long[] getCodeLengthDistribution();
+
+    long getCodesBuilt();
+
+    void reset();
+}
@@ -37,6 +37,7 @@ public class HuffmanNode implements Comparable<HuffmanNode> {
      */
     @Override
     public int compareTo(HuffmanNode other) {
-        return this.frequency - other.frequency; 
+        // Integer.compare does not overflow like (this.frequency - other.frequency) can
+        return Integer.compare(this.frequency, other.frequency);
     }
 }
@@ -0,0 +1,52 @@
+package cpcs324_project;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one measured HuffmanEncoder phase.
+ * Only loaded when JFR events are switched on in HuffmanMetrics, so the
+ * project still runs on JVMs without JFR.
+ */
+@Name("cpcs324_project.HuffmanPhase")
+@Label("Huffman Phase")
+@Category({"CPCS324 Project", "Huffman"})
+@Description("One read, count, tree build, code gen, encode, write or decode step")
+class HuffmanPhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Duration")
+    @Timespan
+    long nanos;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Symbols")
+    long symbols;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    // Commits one event if a recording has it enabled
+    static void emit(String phase, long nanos, long bytes, long symbols, long allocatedBytes) {
+        HuffmanPhaseEvent event = new HuffmanPhaseEvent();
+        if (event.isEnabled()) {
+            event.phase = phase;
+            event.nanos = nanos;
+            event.bytes = bytes;
+            event.symbols = symbols;
+            event.allocatedBytes = allocatedBytes;
+            event.commit();
+        }
+    }
+}
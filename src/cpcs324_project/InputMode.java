@@ -0,0 +1,39 @@
+package cpcs324_project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Selects how an input file is brought into memory before encoding.
+ *
+ * HEAP_COPY reads the whole file into a heap ByteBuffer through a FileChannel.
+ * MEMORY_MAPPED maps the file read-only, so the encoders run directly over
+ * the file pages without copying them into the Java heap.
+ */
+public enum InputMode {
+    HEAP_COPY,
+    MEMORY_MAPPED;
+
+    /**
+     * Loads the file in this mode.
+     * @param file The file to read.
+     * @return A buffer holding the file bytes from position 0 to limit.
+     */
+    public ByteBuffer load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large for a single buffer, use the streaming mode: " + file);
+            }
+
+            if (this == MEMORY_MAPPED) {
+                // The mapping stays valid after the channel is closed
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            return HuffmanFileFormat.readFully(channel, (int) size);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package cpcs324_project;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * LZ77 match finding followed by Huffman coding of the tokens (the DEFLATE idea).
+ *
+ * Stage 1 parses the input greedily into literals and (length, distance)
+ * matches against the last WINDOW_SIZE bytes. Candidates come from a hash
+ * chain index: head[] holds the latest position of each 4-byte hash and
+ * prev[] links every position to the previous one with the same hash, so
+ * only positions that can match are compared (at most maxChainLength of them).
+ *
+ * Stage 2 codes the tokens with two canonical Huffman codes built by HuffmanEncoder:
+ * - literal/length: symbols 0..255 are literals, 256 + (length - MIN_MATCH) a match length
+ * - distance: slot = bit length of (distance - 1), followed by slot - 1 raw bits for slots >= 2
+ *
+ * Layout: u64 original size, literal/length code table, distance code table, packed payload.
+ */
+public class Lz77HuffmanCodec implements Codec {
+
+    public static final int WINDOW_SIZE = 1 << 16;
+    public static final int MIN_MATCH = 4;
+    public static final int MAX_MATCH = 258;
+    public static final int DEFAULT_MAX_CHAIN_LENGTH = 32;
+
+    private static final int HASH_BITS = 15;
+    private static final int LITERAL_LENGTH_SYMBOLS = 256 + MAX_MATCH - MIN_MATCH + 1;
+    private static final int DISTANCE_SLOTS = 17; // Bit lengths 0..16 of distance - 1
+
+    private final int maxChainLength;
+
+    public Lz77HuffmanCodec() {
+        this(DEFAULT_MAX_CHAIN_LENGTH);
+    }
+
+    /**
+     * @param maxChainLength The number of earlier positions compared per match search
+     *        (higher = better matches, slower compression).
+     */
+    public Lz77HuffmanCodec(int maxChainLength) {
+        if (maxChainLength < 1) {
+            throw new IllegalArgumentException("The chain length must be at least 1: " + maxChainLength);
+        }
+        this.maxChainLength = maxChainLength;
+    }
+
+    @Override
+    public String getName() {
+        return "LZ77+Huffman";
+    }
+
+    public int getMaxChainLength() {
+        return maxChainLength;
+    }
+
+    @Override
+    public ByteBuffer compress(ByteBuffer input) {
+        byte[] data = new byte[input.remaining()];
+        input.duplicate().get(data);
+        int n = data.length;
+
+        // Stage 1: tokens (symbol + distance, distance 0 = literal) and their histograms
+        int[] symbols = new int[n];
+        int[] distances = new int[n];
+        int tokenCount = 0;
+        long[] symbolCounts = new long[LITERAL_LENGTH_SYMBOLS];
+        long[] slotCounts = new long[DISTANCE_SLOTS];
+
+        int[] head = new int[1 << HASH_BITS];
+        int[] prev = new int[WINDOW_SIZE];
+        Arrays.fill(head, -1);
+        int i = 0;
+        while (i < n) {
+            int bestLength = 0;
+            int bestDistance = 0;
+            if (i + MIN_MATCH <= n) {
+                int hash = hash(data, i);
+                int maxLength = Math.min(MAX_MATCH, n - i);
+                int candidate = head[hash];
+                for (int chain = maxChainLength; candidate >= 0 && i - candidate <= WINDOW_SIZE && chain > 0; chain--) {
+                    // Check the byte after the current best first, most candidates fail there
+                    if (data[candidate + bestLength] == data[i + bestLength]) {
+                        int length = 0;
+                        while (length < maxLength && data[candidate + length] == data[i + length]) {
+                            length++;
+                        }
+                        if (length > bestLength) {
+                            bestLength = length;
+                            bestDistance = i - candidate;
+                            if (length == maxLength) break;
+                        }
+                    }
+                    candidate = prev[candidate & (WINDOW_SIZE - 1)];
+                }
+            }
+
+            if (bestLength >= MIN_MATCH) {
+                int symbol = 256 + bestLength - MIN_MATCH;
+                symbols[tokenCount] = symbol;
+                distances[tokenCount++] = bestDistance;
+                symbolCounts[symbol]++;
+                slotCounts[distanceSlot(bestDistance)]++;
+            } else {
+                bestLength = 1;
+                symbols[tokenCount] = data[i] & 0xFF;
+                distances[tokenCount++] = 0;
+                symbolCounts[data[i] & 0xFF]++;
+            }
+
+            // Index every covered position so later matches can start inside this one
+            int next = i + bestLength;
+            for (int end = Math.min(next, n - MIN_MATCH + 1); i < end; i++) {
+                int hash = hash(data, i);
+                prev[i & (WINDOW_SIZE - 1)] = head[hash];
+                head[hash] = i;
+            }
+            i = next;
+        }
+
+        // Stage 2: one Huffman code per alphabet
+        HuffmanEncoder symbolEncoder = new HuffmanEncoder();
+        symbolEncoder.buildCodes(symbolCounts);
+        HuffmanEncoder distanceEncoder = new HuffmanEncoder();
+        distanceEncoder.buildCodes(slotCounts);
+        int[] symbolBits = symbolEncoder.getCodeBits();
+        byte[] symbolLengths = symbolEncoder.getCodeLengths();
+        int[] slotBits = distanceEncoder.getCodeBits();
+        byte[] slotLengths = distanceEncoder.getCodeLengths();
+
+        BitWriter writer = new BitWriter(n / 2);
+        for (int t = 0; t < tokenCount; t++) {
+            int symbol = symbols[t];
+            writer.writeBits(symbolBits[symbol], symbolLengths[symbol]);
+            if (symbol >= 256) {
+                int distance = distances[t] - 1;
+                int slot = distanceSlot(distances[t]);
+                writer.writeBits(slotBits[slot], slotLengths[slot]);
+                if (slot >= 2) {
+                    writer.writeBits(distance & ((1 << (slot - 1)) - 1), slot - 1);
+                }
+            }
+        }
+        PackedBitstream payload = writer.toBitstream();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.getData().length + 1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(n);
+            symbolEncoder.getCanonicalCode().writeHeader(out);
+            distanceEncoder.getCanonicalCode().writeHeader(out);
+            out.write(payload.getData());
+        } catch (IOException e) {
+            // ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    @Override
+    public ByteBuffer decompress(ByteBuffer compressed) throws IOException {
+        ByteBuffer input = compressed.duplicate();
+        int originalSize = CodecHeaders.readSize(input);
+        DataInput header = CodecHeaders.asDataInput(input);
+        CanonicalHuffmanCode symbolCode = CanonicalHuffmanCode.readHeader(header);
+        CanonicalHuffmanCode distanceCode = CanonicalHuffmanCode.readHeader(header);
+        PackedBitstream payload = CodecHeaders.remainingBits(input);
+
+        byte[] output = new byte[originalSize];
+        if (originalSize == 0) {
+            return ByteBuffer.wrap(output);
+        }
+        HuffmanDecodeTable symbolTable = new HuffmanDecodeTable(symbolCode);
+        HuffmanDecodeTable distanceTable = distanceCode.getSymbolCount() > 0 ? new HuffmanDecodeTable(distanceCode) : null;
+        BitReader reader = new BitReader(payload);
+        int position = 0;
+        while (position < originalSize) {
+            int symbol = symbolTable.decodeSymbol(reader);
+            if (symbol < 256) {
+                output[position++] = (byte) symbol;
+                continue;
+            }
+            if (distanceTable == null) {
+                throw new IOException("Match without a distance code");
+            }
+            int length = symbol - 256 + MIN_MATCH;
+            int slot = distanceTable.decodeSymbol(reader);
+            int distance = slot < 2 ? slot : (1 << (slot - 1)) | readBits(reader, slot - 1);
+            distance++;
+            if (distance > position || length > originalSize - position) {
+                throw new IOException("Invalid match at byte " + position);
+            }
+            // Byte by byte, so a match may overlap the bytes it produces (distance < length)
+            for (int from = position - distance, end = position + length; position < end; ) {
+                output[position++] = output[from++];
+            }
+        }
+        return ByteBuffer.wrap(output);
+    }
+
+    @Override
+    public int getMaxCodeLength(ByteBuffer compressed) throws IOException {
+        ByteBuffer input = compressed.duplicate();
+        CodecHeaders.readSize(input);
+        DataInput header = CodecHeaders.asDataInput(input);
+        int symbolLength = CanonicalHuffmanCode.readHeader(header).getMaxLength();
+        return Math.max(symbolLength, CanonicalHuffmanCode.readHeader(header).getMaxLength());
+    }
+
+    // Hash of the 4 bytes starting at i
+    private static int hash(byte[] data, int i) {
+        int value = (data[i] & 0xFF) << 24 | (data[i + 1] & 0xFF) << 16 | (data[i + 2] & 0xFF) << 8 | (data[i + 3] & 0xFF);
+        return (value * 0x9E3779B1) >>> (32 - HASH_BITS);
+    }
+
+    // Bit length of distance - 1 (0..16)
+    private static int distanceSlot(int distance) {
+        return 32 - Integer.numberOfLeadingZeros(distance - 1);
+    }
+
+    private static int readBits(BitReader reader, int count) {
+        int bits = reader.peekBits(count);
+        reader.skipBits(count);
+        return bits;
+    }
+}
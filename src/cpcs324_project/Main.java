@@ -2,13 +2,22 @@ package cpcs324_project;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
 
 public class Main {
 
@@ -19,8 +28,26 @@ public class Main {
         "file_1MB.txt"
     };
 
+    // Zipf-distributed text used to show the cost of length-limited codes
+    private static final String SKEWED_FILE_NAME = "file_skewed_1MB.txt";
+    private static final String PRINTABLE_ASCII =
+            " etaoinshrdlcumwfgypbvkjxqzETAOINSHRDLCUMWFGYPBVKJXQZ0123456789.,;:!?'\"-()[]{}<>/\\|@#$%^&*_+=~`\n";
+
+    // Structured text (each byte depends on the previous ones) for the order-1 context model
+    private static final String STRUCTURED_FILE_NAME = "file_markov_1MB.txt";
+
+    // Code length limits compared in the results table
+    private static final int[] CODE_LENGTH_LIMITS = {15, 12};
+
     public static void main(String[] args) throws IOException {
         Locale.setDefault(Locale.US);
+
+        // Non-interactive mode: compress/decompress files given on the command line
+        if (args.length > 0) {
+            runCommandLine(args);
+            return;
+        }
+
         int userOption; // Variable to store user's menu choice
         Scanner input = new Scanner(System.in);
 
@@ -36,7 +63,31 @@ public class Main {
             System.out.print("1. Encode a file with  Huffman Coding\n"
                     + "2. Start Compression Algorithm Testing\n"
                     + "   Huffman Coding vs. Baseline Fixed-Length Coding\n"
-                    + "3. Exit \n Select one option: ");
+                    + "3. Decoder Throughput Benchmark\n"
+                    + "   Tree Walk vs. Lookup Table\n"
+                    + "4. Input Mode Benchmark\n"
+                    + "   readAllBytes vs. Heap Copy vs. Memory-Mapped\n"
+                    + "5. Parallel Scaling Benchmark\n"
+                    + "   Fork/Join Encoding and Block Decoding\n"
+                    + "6. Statistical Benchmark\n"
+                    + "   Warm-up, Repetitions and Percentiles\n"
+                    + "7. Symbol Model Comparison\n"
+                    + "   Bytes vs. UTF-8 Code Points vs. 16-bit Units\n"
+                    + "8. Tree Construction Benchmark\n"
+                    + "   Priority Queue vs. Two-Queue\n"
+                    + "9. Adaptive vs. Static Huffman\n"
+                    + "   One-Pass FGK vs. Two-Pass Canonical\n"
+                    + "10. Code Table Cache Benchmark\n"
+                    + "   Per-Message Trees vs. LRU Cache vs. Trained Dictionary\n"
+                    + "11. Shared Model Benchmark\n"
+                    + "   Encoder per Request vs. Shared Model with Pooled Contexts\n"
+                    + "12. Batch Directory Compression\n"
+                    + "   Concurrent .huf Compression of Every File in a Directory\n"
+                    + "13. Codec Comparison\n"
+                    + "   Huffman vs. rANS vs. Order-1 vs. Fixed-Width vs. LZ77+Huffman\n"
+                    + "14. Encoder Phase Metrics\n"
+                    + "   Per-Phase Histograms, Allocations and Code Lengths (JMX/JFR)\n"
+                    + "15. Exit \n Select one option: ");
             userOption = input.nextInt();
             System.out.println("--------------------------------------");
             switch (userOption) {
@@ -67,26 +118,30 @@ public class Main {
 
                     // Read file content and get original size
                     String originalText = new String(Files.readAllBytes(Paths.get(fileName)));
-                    long originalSize = originalText.length(); // Size in Bytes
+                    long originalSize = Files.size(Paths.get(fileName)); // Size in Bytes
 
                     HuffmanEncoder huffmanEncoder = new HuffmanEncoder();
 
                     // --------- Encoding ------------
                     // Measure time taken for encoding 
                     long startTime = System.nanoTime();
-                    String encodedBitstream = huffmanEncoder.encode(fileName);
+                    PackedBitstream encodedBitstream = huffmanEncoder.encodeToBits(fileName);
                     long encodeTime = (System.nanoTime() - startTime) / 1000000; // Time in milliseconds
 
-                    // Calculate compressed size in Bytes using the encoder method
+                    // Actual size in Bytes of the packed bitstream
                     long compressedSize = huffmanEncoder.getCompressedSizeInBytes(encodedBitstream);
 
                     // Calculate Compression Ratio (Compressed Size / Original Size)
                     double compressionRatio = (double) compressedSize / originalSize;
 
+                    // Serialized canonical code table needed to decode the payload
+                    byte[] codeHeader = huffmanEncoder.getCodeHeader();
+
                     // --------- Decoding ------------
                     // Measure time taken to decode the encoded bitstream back to original text
+                    // (only the header and the payload are used, not the encoder's tree)
                     startTime = System.nanoTime();
-                    String decodedText = huffmanEncoder.decode(encodedBitstream);
+                    String decodedText = HuffmanEncoder.decode(codeHeader, encodedBitstream);
                     long decodeTime = (System.nanoTime() - startTime) / 1000000;
 
                     // Verification check (Req. 2.3)
@@ -99,6 +154,7 @@ public class Main {
                     System.out.println("\n--- Huffman Compression Results ---");
                     System.out.println("Original File Size     : " + originalSize + " bytes");
                     System.out.println("Compressed File Size   : " + compressedSize + " bytes");
+                    System.out.println("Code Table Header Size : " + codeHeader.length + " bytes");
                     System.out.println("Compression Ratio      : " + String.format("%.4f", compressionRatio));
                     System.out.println("Encoding Time          : " + encodeTime + " ms");
                     System.out.println("Decoding Time          : " + decodeTime + " ms");
@@ -111,6 +167,90 @@ public class Main {
                     compressionAlgorithmTesting();
                     break;
                 }
+                // Option 3: Compare the throughput of the two Huffman decoders
+                case 3: {
+                    decoderThroughputBenchmark();
+                    break;
+                }
+                // Option 4: Compare the ways of loading the input file
+                case 4: {
+                    inputModeBenchmark();
+                    break;
+                }
+                // Option 5: Parallel encoding and block decoding with 1 to N threads
+                case 5: {
+                    int availableThreads = Runtime.getRuntime().availableProcessors();
+                    System.out.print("Enter the maximum number of threads (available: " + availableThreads + "): ");
+                    int maxThreads = input.nextInt();
+                    parallelScalingBenchmark(Math.max(1, maxThreads));
+                    break;
+                }
+                // Option 6: Repeated measurements with percentiles, saved to CSV and JSON
+                case 6: {
+                    System.out.print("Enter the number of warm-up runs: ");
+                    int warmUpRuns = input.nextInt();
+                    System.out.print("Enter the number of measured repetitions: ");
+                    int measuredRuns = input.nextInt();
+                    statisticalBenchmark(Math.max(0, warmUpRuns), Math.max(1, measuredRuns));
+                    break;
+                }
+                // Option 7: Huffman over bytes, UTF-8 code points and 16-bit units
+                case 7: {
+                    symbolModelComparison();
+                    break;
+                }
+                // Option 8: Heap-based vs. linear-time tree construction on growing alphabets
+                case 8: {
+                    treeConstructionBenchmark();
+                    break;
+                }
+                // Option 9: One-pass adaptive coding vs. the static two-pass encoder
+                case 9: {
+                    adaptiveHuffmanBenchmark();
+                    break;
+                }
+                // Option 10: Many small messages with cached or trained code tables
+                case 10: {
+                    codeTableCacheBenchmark();
+                    break;
+                }
+                // Option 11: Many threads encoding small messages with one code
+                case 11: {
+                    sharedModelBenchmark(Runtime.getRuntime().availableProcessors());
+                    break;
+                }
+                // Option 12: Compress a whole directory concurrently
+                case 12: {
+                    System.out.print("Enter the input directory: ");
+                    String inputDir = input.next();
+                    System.out.print("Enter the output directory: ");
+                    String outputDir = input.next();
+                    System.out.print("Enter the executor (fixed, fork_join, cached, virtual): ");
+                    String executorName = input.next();
+                    System.out.print("Enter the number of threads: ");
+                    int threads = Math.max(1, input.nextInt());
+                    System.out.print("Enter the in-flight memory limit (MB): ");
+                    long maxInFlightMB = Math.max(1, input.nextLong());
+                    try {
+                        BatchCompressor.ExecutorKind kind = BatchCompressor.ExecutorKind.valueOf(executorName.toUpperCase());
+                        runBatch(Paths.get(inputDir), Paths.get(outputDir), kind, threads, maxInFlightMB);
+                    } catch (IOException | IllegalArgumentException | UnsupportedOperationException e) {
+                        // Report the error and return to the menu
+                        System.err.println("Error during batch: " + e.getMessage());
+                    }
+                    break;
+                }
+                // Option 13: Every Codec on the same inputs
+                case 13: {
+                    codecComparison(Arrays.asList(new HuffmanCodec(), new RansCodec(1), new RansCodec(), new ContextHuffmanCodec(),
+                            new AdaptiveHuffmanCodec(), new FixedLengthCodec(true), new Lz77HuffmanCodec()));
+                    break;
+                }
+                // Option 14: Phase metrics of repeated encodes and decodes
+                case 14: {
+                    encoderMetricsReport(10);
+                    break;
+                }
                 default: {
                     System.out.println("Exiting program");
                     System.exit(0);
@@ -121,6 +261,154 @@ public class Main {
     
 
     
+    /**
+     * Handles the non-interactive commands:
+     *   compress [--stream | --mmap | --blocks] <in> <out>   writes a .huf container
+     *   decompress [--stream] <in> <out>                     restores the original file
+     *   range <in> <offset> <length> <out>                   restores one byte range of a block file
+     *   generate <type> <size> <seed> <out> [sample] [order]  writes a reproducible test corpus
+     *   batch [--executor kind] [--threads n] [--max-in-flight MB] <inDir> <outDir>
+     *                                                        compresses every file of a directory
+     * --stream processes the file chunk by chunk for inputs larger than the heap,
+     * --mmap memory-maps the input file instead of copying it into the heap,
+     * --blocks writes independently decodable 64 KB blocks (decoded in parallel).
+     */
+    private static void runCommandLine(String[] args) {
+        String command = args[0];
+        if (command.equals("range") && args.length == 5) {
+            runRangeCommand(args);
+            return;
+        }
+        if (command.equals("generate") && args.length >= 5) {
+            runGenerateCommand(args);
+            return;
+        }
+        if (command.equals("batch") && args.length >= 3) {
+            runBatchCommand(args);
+            return;
+        }
+
+        String option = args.length == 4 ? args[1] : "";
+        boolean streaming = option.equals("--stream");
+        boolean memoryMapped = option.equals("--mmap") && command.equals("compress");
+        boolean blocks = option.equals("--blocks") && command.equals("compress");
+        if (!(command.equals("compress") || command.equals("decompress"))
+                || !(args.length == 3 || streaming || memoryMapped || blocks)) {
+            System.err.println("Usage: compress [--stream | --mmap | --blocks] <in> <out>"
+                    + " | decompress [--stream] <in> <out> | range <in> <offset> <length> <out>"
+                    + " | generate <uniform|zipf|skewed|geometric|degenerate|binary|markov> <size> <seed> <out>"
+                    + " [sample] [order]"
+                    + " | batch [--executor fixed|fork_join|cached|virtual] [--threads n] [--max-in-flight MB]"
+                    + " <inDir> <outDir>");
+            System.exit(1);
+        }
+
+        Path input = Paths.get(args[args.length - 2]);
+        Path output = Paths.get(args[args.length - 1]);
+        int chunkSize = HuffmanFileFormat.DEFAULT_CHUNK_SIZE;
+        try {
+            long startTime = System.nanoTime();
+            long inputSize = Files.size(input);
+            long outputSize;
+            if (command.equals("compress")) {
+                if (streaming) {
+                    outputSize = HuffmanFileFormat.compressStreaming(input, output, chunkSize);
+                } else if (blocks) {
+                    outputSize = BlockHuffmanFormat.compress(input, output, BlockHuffmanFormat.DEFAULT_BLOCK_SIZE);
+                } else {
+                    InputMode mode = memoryMapped ? InputMode.MEMORY_MAPPED : InputMode.HEAP_COPY;
+                    outputSize = HuffmanFileFormat.compress(input, output, mode);
+                }
+            } else if (BlockHuffmanFormat.isBlockFile(input)) {
+                int threads = Runtime.getRuntime().availableProcessors();
+                outputSize = BlockHuffmanFormat.decompress(input, output, threads);
+            } else {
+                outputSize = streaming
+                        ? HuffmanFileFormat.decompressStreaming(input, output, chunkSize)
+                        : HuffmanFileFormat.decompress(input, output);
+            }
+            long elapsedTime = (System.nanoTime() - startTime) / 1000000;
+
+            System.out.println(command + ": " + input + " (" + inputSize + " bytes) -> "
+                    + output + " (" + outputSize + " bytes) in " + elapsedTime + " ms");
+        } catch (IOException e) {
+            System.err.println("Error during " + command + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // Handles: range <in> <offset> <length> <out>
+    private static void runRangeCommand(String[] args) {
+        Path input = Paths.get(args[1]);
+        Path output = Paths.get(args[4]);
+        try {
+            long startTime = System.nanoTime();
+            byte[] range = BlockHuffmanFormat.readRange(input, Long.parseLong(args[2]), Integer.parseInt(args[3]));
+            Files.write(output, range);
+            long elapsedTime = (System.nanoTime() - startTime) / 1000000;
+
+            System.out.println("range: " + input + " [" + args[2] + ", +" + args[3] + "] -> "
+                    + output + " (" + range.length + " bytes) in " + elapsedTime + " ms");
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Error during range: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Handles: generate <type> <size> <seed> <out> [sample] [order]
+     * The markov type is trained on the sample file (order 2 by default).
+     * Chunks are generated with all available processors.
+     */
+    private static void runGenerateCommand(String[] args) {
+        String type = args[1];
+        Path output = Paths.get(args[4]);
+        try {
+            long size = Long.parseLong(args[2]);
+            long seed = Long.parseLong(args[3]);
+            CorpusGenerator generator;
+            switch (type) {
+                case "uniform":
+                    generator = RandomTextGenerator.uniform("ABCDEFGHIJKLMNOPQRSTUVWXYZ");
+                    break;
+                case "zipf":
+                    generator = RandomTextGenerator.zipf("ETAOINSHRDLCUMWFGYPBVKJXQZ", 1.0);
+                    break;
+                case "skewed":
+                    generator = RandomTextGenerator.skewed(0.9);
+                    break;
+                case "geometric":
+                    generator = RandomTextGenerator.geometric(0.5);
+                    break;
+                case "degenerate":
+                    generator = RandomTextGenerator.degenerate((byte) 'A');
+                    break;
+                case "binary":
+                    generator = RandomTextGenerator.binary();
+                    break;
+                case "markov":
+                    if (args.length < 6) {
+                        throw new IllegalArgumentException("markov needs a sample file");
+                    }
+                    int order = args.length > 6 ? Integer.parseInt(args[6]) : 2;
+                    generator = RandomTextGenerator.markov(Paths.get(args[5]), order);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown generator type: " + type);
+            }
+
+            long startTime = System.nanoTime();
+            int threads = Runtime.getRuntime().availableProcessors();
+            RandomTextGenerator.generateToFile(generator, output, size, seed, threads);
+            long elapsedTime = (System.nanoTime() - startTime) / 1000000;
+
+            System.out.println("generate: " + type + " -> " + output + " (" + size + " bytes) in " + elapsedTime + " ms");
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error during generate: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
     /**
      * Automates compression testing:
      * - Generates random test files (50KB, 200KB, 1MB)
@@ -147,6 +435,14 @@ public class Main {
             String text_1MB = RandomTextGenerator.execute(size_1MB);
             RandomTextGenerator.saveToFile("file_1MB.txt", text_1MB);
 
+            // Long-tailed text: its Huffman code is longer than the length limits below
+            Files.write(Paths.get(SKEWED_FILE_NAME), RandomTextGenerator.generate(
+                    RandomTextGenerator.zipf(PRINTABLE_ASCII, 3.0), size_1MB, 1));
+
+            // Order-2 Markov text trained on multilingual UTF-8 words
+            Files.write(Paths.get(STRUCTURED_FILE_NAME), RandomTextGenerator.generate(
+                    RandomTextGenerator.markov(multilingualText(256 * 1024), 2), size_1MB, 1));
+
             System.out.println("All test files generation complete.\n");
 
         } catch (IOException e) {
@@ -163,24 +459,38 @@ public class Main {
         // Add table header row
         resultsTable.add(new String[]{"File Name", "Method", "Original Size (B)",
             "Compressed Size (B)", "Compression Ratio",
-            "Encode Time (ms)", "Decode Time (ms)"});
+            "Encode Time (ms)", "Decode Time (ms)", "Max Code Length"});
 
         // Run tests on all defined files
-        for (String fileName : FILE_NAMES) {
-            // Read file content and get original size
-            String originalText = new String(Files.readAllBytes(Paths.get(fileName)));
-            long originalSize = originalText.length(); // Size in Bytes
-
-            // 1. Run Huffman Coding Test
-            runHuffmanTest(fileName, originalText, originalSize, resultsTable);
-
-            // 2. Run Fixed-Length Encoding (Baseline) Test
-            runFixedLengthTest(fileName, originalText, originalSize, resultsTable);
+        List<String> testFiles = new ArrayList<>(Arrays.asList(FILE_NAMES));
+        testFiles.add(SKEWED_FILE_NAME);
+        testFiles.add(STRUCTURED_FILE_NAME);
+        // Huffman (unlimited, then length-limited codes), order-1 and adaptive Huffman, the
+        // 8-bit Baseline and narrowest fixed width, rANS and the LZ77 + Huffman pipeline
+        List<Codec> codecs = new ArrayList<>();
+        codecs.add(new HuffmanCodec());
+        for (int limit : CODE_LENGTH_LIMITS) {
+            codecs.add(new HuffmanCodec(limit));
+        }
+        codecs.add(new ContextHuffmanCodec());
+        codecs.add(new AdaptiveHuffmanCodec());
+        codecs.add(new FixedLengthCodec(false));
+        codecs.add(new FixedLengthCodec(true));
+        codecs.add(new RansCodec());
+        codecs.add(new Lz77HuffmanCodec());
+        for (String fileName : testFiles) {
+            ByteBuffer data = InputMode.HEAP_COPY.load(Paths.get(fileName));
+            for (Codec codec : codecs) {
+                runCodecTest(fileName, data, codec, resultsTable);
+            }
         }
 
         // Print final results table
         printResultsTable(resultsTable);
 
+        // Ratio cost vs. decode speed of the length limits, with repeated measurements
+        printLengthLimitCost(new String[]{"file_1MB.txt", SKEWED_FILE_NAME});
+
         System.out.println("\nTesting complete. Data is ready for analysis and plotting.");
 
         // Save results to CSV file for 
@@ -189,82 +499,913 @@ public class Main {
 
     }
 
-    // Helper function to run the Huffman test case
-    private static void runHuffmanTest(String fileName, String originalText, long originalSize, List<String[]> resultsTable) throws IOException {
-        HuffmanEncoder huffmanEncoder = new HuffmanEncoder();
+    // Parses the batch options (all optional) and runs the batch
+    private static void runBatchCommand(String[] args) {
+        BatchCompressor.ExecutorKind kind = BatchCompressor.ExecutorKind.FIXED;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long maxInFlightMB = 256;
+        try {
+            int i = 1;
+            for (; i + 1 < args.length - 2; i += 2) {
+                switch (args[i]) {
+                    case "--executor":
+                        kind = BatchCompressor.ExecutorKind.valueOf(args[i + 1].toUpperCase());
+                        break;
+                    case "--threads":
+                        threads = Math.max(1, Integer.parseInt(args[i + 1]));
+                        break;
+                    case "--max-in-flight":
+                        maxInFlightMB = Math.max(1, Long.parseLong(args[i + 1]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (i != args.length - 2) {
+                throw new IllegalArgumentException("Expected <inDir> <outDir> after the options");
+            }
+            runBatch(Paths.get(args[args.length - 2]), Paths.get(args[args.length - 1]), kind, threads, maxInFlightMB);
+        } catch (IOException | IllegalArgumentException | UnsupportedOperationException e) {
+            System.err.println("Error during batch: " + e.getMessage());
+            System.exit(1);
+        }
+    }
 
-        // Time the Encoding process (Build Tree + Generate Codes + Encode)
-        long startTime = System.nanoTime();
-        String encodedBitstream = huffmanEncoder.encode(fileName);
-        long encodeTime = (System.nanoTime() - startTime) / 1000000; // Time in milliseconds
+    /**
+     * Compresses every file under inputDir concurrently and prints the per-file
+     * results table, the totals and the failures. The table is saved to
+     * batch_results.csv like the testing results.
+     */
+    private static void runBatch(Path inputDir, Path outputDir, BatchCompressor.ExecutorKind kind, int threads,
+            long maxInFlightMB) throws IOException {
+        if (!Files.isDirectory(inputDir)) {
+            throw new IOException("Not a directory: " + inputDir);
+        }
+        ExecutorService executor = BatchCompressor.newExecutor(kind, threads);
+        BatchCompressor.Report report;
+        try {
+            report = new BatchCompressor(executor, maxInFlightMB * 1024 * 1024).compressDirectory(inputDir, outputDir);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch interrupted", e);
+        } finally {
+            executor.shutdown();
+        }
+
+        List<String[]> resultsTable = new ArrayList<>();
+        resultsTable.add(new String[]{"File Name", "Method", "Original Size (B)",
+            "Compressed Size (B)", "Compression Ratio",
+            "Encode Time (ms)", "Decode Time (ms)", "Max Code Length"});
+        resultsTable.addAll(report.toResultsTable());
+        printResultsTable(resultsTable);
 
-        // Calculate compressed size in Bytes using the encoder method
-        long compressedSize = huffmanEncoder.getCompressedSizeInBytes(encodedBitstream);
+        List<BatchCompressor.FileResult> failures = report.getFailures();
+        System.out.println("\n--- Batch Summary (" + kind + ", " + threads + " threads, "
+                + maxInFlightMB + " MB in flight) ---");
+        System.out.println("Files compressed:   " + (report.getResults().size() - failures.size())
+                + " of " + report.getResults().size());
+        System.out.println("Original size:      " + report.getTotalOriginalSize() + " bytes");
+        System.out.println("Compressed size:    " + report.getTotalCompressedSize() + " bytes");
+        System.out.printf("Overall ratio:      %.4f\n", report.getTotalOriginalSize() == 0 ? 1.0
+                : (double) report.getTotalCompressedSize() / report.getTotalOriginalSize());
+        System.out.printf("Wall time:          %.1f ms\n", report.getWallNanos() / 1e6);
+        System.out.printf("Throughput:         %.2f MB/s\n", report.getMegabytesPerSecond());
+        System.out.println("Peak in flight:     " + report.getPeakInFlightBytes() + " bytes");
+        for (BatchCompressor.FileResult failure : failures) {
+            System.out.println("FAILED: " + failure.getInput() + " (" + failure.getError() + ")");
+        }
 
-        // Calculate Compression Ratio (Compressed Size / Original Size)
+        saveResultsToCSV(resultsTable, "batch_results.csv");
+    }
+
+    // Helper function to run any Codec as a test case; the size includes the codec's own header
+    private static void runCodecTest(String fileName, ByteBuffer data, Codec codec, List<String[]> resultsTable) throws IOException {
+        long originalSize = data.remaining();
+
+        // Time the Encoding process
+        long startTime = System.nanoTime();
+        ByteBuffer compressed = codec.compress(data);
+        long encodeTime = (System.nanoTime() - startTime) / 1000000;
+
+        long compressedSize = compressed.remaining();
         double compressionRatio = (double) compressedSize / originalSize;
 
         // Time the Decoding process
         startTime = System.nanoTime();
-        String decodedText = huffmanEncoder.decode(encodedBitstream);
+        ByteBuffer decoded = codec.decompress(compressed);
         long decodeTime = (System.nanoTime() - startTime) / 1000000;
 
-        // Verification check (Req. 2.3)
-        boolean isCorrect = originalText.equals(decodedText);
+        boolean isCorrect = decoded.equals(data);
 
-        // Store results in the table
+        // The code length column does not apply to every codec
+        int maxCodeLength = codec.getMaxCodeLength(compressed);
         resultsTable.add(new String[]{
             fileName,
-            "Huffman",
+            codec.getName(),
             String.valueOf(originalSize),
             String.valueOf(compressedSize),
             String.format("%.4f", compressionRatio),
             String.valueOf(encodeTime),
-            String.valueOf(decodeTime)
+            String.valueOf(decodeTime),
+            maxCodeLength < 0 ? "-" : String.valueOf(maxCodeLength)
         });
-
-        System.out.println("\n--- Huffman Test for " + fileName + " ---");
+        System.out.println("\n--- " + codec.getName() + " Test for " + fileName + " ---");
         System.out.println("Decoding Verification: " + (isCorrect ? "Correct" : "Incorrect"));
     }
 
-    // Helper function to run the Fixed-Length (Baseline) test case
-    private static void runFixedLengthTest(String fileName, String originalText, long originalSize, List<String[]> resultsTable) throws IOException {
-        FixedLengthEncoder fixedEncoder = new FixedLengthEncoder();
+    /**
+     * Compares decode throughput of the tree-walk decoder and the lookup-table decoder.
+     * Each decoder runs a few warm-up rounds first so the JIT has compiled it.
+     */
+    private static void decoderThroughputBenchmark() throws IOException {
+        final int warmUpRuns = 3;
+        final int measuredRuns = 5;
 
-        long startTime, endTime, encodeTime, decodeTime = 0;
+        System.out.println("\n==================================================");
+        System.out.println("========= Decoder Throughput Benchmark ===========");
+        System.out.println("==================================================");
+        System.out.printf("%-15s | %-13s | %-16s | %-12s\n", "File Name", "Decoder", "Avg Decode (ms)", "MB/s");
 
-        startTime = System.nanoTime();
-        String encodedBitstream = fixedEncoder.encode(fileName);
-        endTime = System.nanoTime();
-        encodeTime = (endTime - startTime) / 1000000;
+        for (String fileName : FILE_NAMES) {
+            if (!Files.exists(Paths.get(fileName))) {
+                System.out.println(fileName + " not found, run option 2 first to generate it.");
+                continue;
+            }
+            long originalSize = Files.size(Paths.get(fileName));
 
-        // Fixed-Length is trivial; no complex encoding/decoding process needed.
-        long compressedSize = fixedEncoder.getCompressedSizeInBytes(originalText);
+            HuffmanEncoder huffmanEncoder = new HuffmanEncoder();
+            PackedBitstream encodedBitstream = huffmanEncoder.encodeToBits(fileName);
 
-        // Compression ratio is 1.0 (Compressed Size == Original Size)
-        double compressionRatio = (double) compressedSize / originalSize;
+            for (HuffmanEncoder.DecodeMode mode : HuffmanEncoder.DecodeMode.values()) {
+                for (int i = 0; i < warmUpRuns; i++) {
+                    huffmanEncoder.decode(encodedBitstream, mode);
+                }
 
-        // Time the Decoding process
-        startTime = System.nanoTime();
-        String decodedText = fixedEncoder.decode(encodedBitstream);
-        decodeTime = (System.nanoTime() - startTime) / 1000000;
+                long startTime = System.nanoTime();
+                for (int i = 0; i < measuredRuns; i++) {
+                    huffmanEncoder.decode(encodedBitstream, mode);
+                }
+                double avgNanos = (double) (System.nanoTime() - startTime) / measuredRuns;
 
-        // Verification check (Req. 2.3)
-        boolean isCorrect = originalText.equals(decodedText);
+                double avgMillis = avgNanos / 1000000.0;
+                double megabytesPerSecond = (originalSize / (1024.0 * 1024.0)) / (avgNanos / 1e9);
+                System.out.printf("%-15s | %-13s | %-16.3f | %-12.2f\n", fileName, mode, avgMillis, megabytesPerSecond);
+            }
+        }
+    }
 
-        // Store results in the table
-        resultsTable.add(new String[]{
-            fileName,
-            "Baseline",
-            String.valueOf(originalSize),
-            String.valueOf(compressedSize),
-            String.format("%.4f", compressionRatio),
-            String.valueOf(encodeTime),
-            String.valueOf(decodeTime)
+    /**
+     * Compares the encode time of the input modes:
+     * - readAllBytes: the original path (file -> String -> char[])
+     * - HEAP_COPY: file bytes copied once into a heap ByteBuffer
+     * - MEMORY_MAPPED: encoding directly over the mapped file pages
+     * Runs on file_1MB.txt and on larger generated files. The readAllBytes
+     * path is skipped above 16 MB because its String bitstream runs out of heap.
+     */
+    private static void inputModeBenchmark() throws IOException {
+        final int warmUpRuns = 1;
+        final int measuredRuns = 3;
+        String[] benchmarkFiles = {"file_1MB.txt", "file_16MB.txt", "file_64MB.txt"};
+        int[] benchmarkSizes = {1024 * 1024, 16 * 1024 * 1024, 64 * 1024 * 1024};
+        long legacySizeLimit = 16 * 1024 * 1024;
+
+        // Generate any missing test file
+        for (int i = 0; i < benchmarkFiles.length; i++) {
+            if (!Files.exists(Paths.get(benchmarkFiles[i]))) {
+                RandomTextGenerator.saveToFile(benchmarkFiles[i], RandomTextGenerator.execute(benchmarkSizes[i]));
+            }
+        }
+
+        System.out.println("\n==================================================");
+        System.out.println("============ Input Mode Benchmark ================");
+        System.out.println("==================================================");
+        System.out.printf("%-15s | %-10s | %-14s | %-16s | %-12s\n",
+                "File Name", "Method", "Input Mode", "Avg Encode (ms)", "MB/s");
+
+        for (String fileName : benchmarkFiles) {
+            long originalSize = Files.size(Paths.get(fileName));
+            String[] modes = {"readAllBytes", InputMode.HEAP_COPY.name(), InputMode.MEMORY_MAPPED.name()};
+
+            for (String method : new String[]{"Huffman", "Baseline"}) {
+                for (String mode : modes) {
+                    // The String bitstream needs 8-16 bytes of heap per input byte
+                    if (mode.equals("readAllBytes") && originalSize > legacySizeLimit) {
+                        System.out.printf("%-15s | %-10s | %-14s | %-16s | %-12s\n",
+                                fileName, method, mode, "skipped", "-");
+                        continue;
+                    }
+
+                    long totalNanos = 0;
+                    for (int i = 0; i < warmUpRuns + measuredRuns; i++) {
+                        long startTime = System.nanoTime();
+                        encodeWithInputMode(method, mode, fileName);
+                        if (i >= warmUpRuns) {
+                            totalNanos += System.nanoTime() - startTime;
+                        }
+                    }
+                    double avgNanos = (double) totalNanos / measuredRuns;
+                    double megabytesPerSecond = (originalSize / (1024.0 * 1024.0)) / (avgNanos / 1e9);
+                    System.out.printf("%-15s | %-10s | %-14s | %-16.3f | %-12.2f\n",
+                            fileName, method, mode, avgNanos / 1000000.0, megabytesPerSecond);
+                }
+            }
+        }
+    }
+
+    // Runs one encode of the file with the given method and input mode
+    private static void encodeWithInputMode(String method, String mode, String fileName) throws IOException {
+        boolean isHuffman = method.equals("Huffman");
+        if (mode.equals("readAllBytes")) {
+            if (isHuffman) {
+                new HuffmanEncoder().encodeToBits(fileName);
+            } else {
+                new FixedLengthEncoder().encode(fileName);
+            }
+        } else if (isHuffman) {
+            new HuffmanEncoder().encodeToBits(fileName, InputMode.valueOf(mode));
+        } else {
+            new FixedLengthEncoder().encodeToBits(fileName, InputMode.valueOf(mode));
+        }
+    }
+
+    /**
+     * Measures parallel encoding of file_16MB.txt with 1, 2, 4, ... up to maxThreads threads
+     * and checks that every output matches the single-threaded HuffmanEncoder.
+     * Then measures parallel decoding of the same file in 64 KB blocks.
+     */
+    private static void parallelScalingBenchmark(int maxThreads) throws IOException {
+        final int warmUpRuns = 1;
+        final int measuredRuns = 3;
+        String fileName = "file_16MB.txt";
+        if (!Files.exists(Paths.get(fileName))) {
+            RandomTextGenerator.saveToFile(fileName, RandomTextGenerator.execute(16 * 1024 * 1024));
+        }
+
+        ByteBuffer data = InputMode.HEAP_COPY.load(Paths.get(fileName));
+        long originalSize = data.remaining();
+        PackedBitstream expected = new HuffmanEncoder().encode(data);
+
+        // Thread counts: powers of two, plus maxThreads itself
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+
+        System.out.println("\n==================================================");
+        System.out.println("=========== Parallel Scaling Benchmark ===========");
+        System.out.println("==================================================");
+        System.out.printf("%-8s | %-16s | %-12s | %-8s | %-10s\n",
+                "Threads", "Avg Encode (ms)", "MB/s", "Speedup", "Identical");
+
+        double singleThreadNanos = 0;
+        for (int threads : threadCounts) {
+            try (ParallelHuffmanEncoder encoder = new ParallelHuffmanEncoder(threads)) {
+                PackedBitstream encodedBitstream = null;
+                long totalNanos = 0;
+                for (int i = 0; i < warmUpRuns + measuredRuns; i++) {
+                    long startTime = System.nanoTime();
+                    encodedBitstream = encoder.encode(data);
+                    if (i >= warmUpRuns) {
+                        totalNanos += System.nanoTime() - startTime;
+                    }
+                }
+                double avgNanos = (double) totalNanos / measuredRuns;
+                if (threads == 1) {
+                    singleThreadNanos = avgNanos;
+                }
+
+                boolean isIdentical = encodedBitstream.getBitLength() == expected.getBitLength()
+                        && Arrays.equals(encodedBitstream.getData(), expected.getData());
+                double megabytesPerSecond = (originalSize / (1024.0 * 1024.0)) / (avgNanos / 1e9);
+                System.out.printf("%-8d | %-16.3f | %-12.2f | %-8.2f | %-10s\n", threads, avgNanos / 1000000.0,
+                        megabytesPerSecond, singleThreadNanos / avgNanos, isIdentical ? "Yes" : "No");
+            }
+        }
+
+        BlockHuffmanFormat.EncodedBlocks blocks = BlockHuffmanFormat.encode(data, BlockHuffmanFormat.DEFAULT_BLOCK_SIZE);
+        ByteBuffer decoded = ByteBuffer.allocate((int) originalSize);
+
+        System.out.println("\n--- Block Decoding (" + blocks.getBlockCount() + " blocks of "
+                + blocks.getBlockSize() / 1024 + " KB) ---");
+        System.out.printf("%-8s | %-16s | %-12s | %-8s | %-10s\n",
+                "Threads", "Avg Decode (ms)", "MB/s", "Speedup", "Correct");
+
+        for (int threads : threadCounts) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long totalNanos = 0;
+            for (int i = 0; i < warmUpRuns + measuredRuns; i++) {
+                decoded.clear();
+                long startTime = System.nanoTime();
+                BlockHuffmanFormat.decode(blocks, decoded, pool);
+                if (i >= warmUpRuns) {
+                    totalNanos += System.nanoTime() - startTime;
+                }
+            }
+            pool.shutdown();
+
+            double avgNanos = (double) totalNanos / measuredRuns;
+            if (threads == 1) {
+                singleThreadNanos = avgNanos;
+            }
+            decoded.flip();
+            boolean isCorrect = decoded.equals(data);
+            double megabytesPerSecond = (originalSize / (1024.0 * 1024.0)) / (avgNanos / 1e9);
+            System.out.printf("%-8d | %-16.3f | %-12.2f | %-8.2f | %-10s\n", threads, avgNanos / 1000000.0,
+                    megabytesPerSecond, singleThreadNanos / avgNanos, isCorrect ? "Yes" : "No");
+        }
+    }
+
+    /**
+     * Benchmarks Huffman and the Fixed-Length baseline on the test files with
+     * warm-up runs and repeated measurements. Prints min/median/p90/p99 and
+     * MB/s of encode and decode, next to the compression ratio, the bits per
+     * symbol and the entropy of the file. Saves everything with the machine
+     * and JVM metadata to benchmark_results.csv and benchmark_results.json.
+     */
+    private static void statisticalBenchmark(int warmUpRuns, int measuredRuns) throws IOException {
+        BenchmarkRunner runner = new BenchmarkRunner(warmUpRuns, measuredRuns);
+        int[] fileSizes = {50 * 1024, 200 * 1024, 1024 * 1024};
+
+        System.out.println("\n==================================================");
+        System.out.println("============= Statistical Benchmark ==============");
+        System.out.println("==================================================");
+        System.out.println(warmUpRuns + " warm-up runs, " + measuredRuns + " measured repetitions");
+
+        for (int f = 0; f < FILE_NAMES.length; f++) {
+            String fileName = FILE_NAMES[f];
+            if (!Files.exists(Paths.get(fileName))) {
+                RandomTextGenerator.saveToFile(fileName, RandomTextGenerator.execute(fileSizes[f]));
+            }
+            ByteBuffer data = InputMode.HEAP_COPY.load(Paths.get(fileName));
+            long originalSize = data.remaining();
+            ByteBuffer decoded = ByteBuffer.allocate((int) originalSize);
+
+            long[] histogram = new long[256];
+            HuffmanEncoder.countBytesUnrolled(data, histogram);
+            double entropy = BenchmarkRunner.entropy(histogram);
+
+            // Huffman: the encode time includes counting, tree building and code generation
+            HuffmanEncoder huffmanEncoder = new HuffmanEncoder();
+            PackedBitstream huffmanBits = huffmanEncoder.encode(data);
+            CanonicalHuffmanCode code = huffmanEncoder.getCanonicalCode();
+            BenchmarkRunner.Statistics encodeStats = runner.measure(() -> new HuffmanEncoder().encode(data));
+            BenchmarkRunner.Statistics decodeStats = runner.measure(() -> {
+                decoded.clear();
+                HuffmanEncoder.decode(code, huffmanBits, decoded);
+            });
+            decoded.flip();
+            runner.addResult(new BenchmarkRunner.Result(fileName, "Huffman", originalSize,
+                    huffmanBits.getSizeInBytes(), entropy, encodeStats, decodeStats, decoded.equals(data)));
+
+            // Baseline: 8 bits per byte
+            FixedLengthEncoder fixedEncoder = new FixedLengthEncoder();
+            PackedBitstream fixedBits = fixedEncoder.encode(data);
+            encodeStats = runner.measure(() -> fixedEncoder.encode(data));
+            decodeStats = runner.measure(() -> {
+                decoded.clear();
+                fixedEncoder.decode(fixedBits, decoded);
+            });
+            decoded.flip();
+            runner.addResult(new BenchmarkRunner.Result(fileName, "Baseline", originalSize,
+                    fixedBits.getSizeInBytes(), entropy, encodeStats, decodeStats, decoded.equals(data)));
+
+            // Fixed width: ceil(log2 alphabet) bits per byte, alphabet header included
+            FixedLengthEncoder narrowEncoder = FixedLengthEncoder.forData(data);
+            PackedBitstream narrowBits = narrowEncoder.encode(data);
+            encodeStats = runner.measure(() -> FixedLengthEncoder.forData(data).encode(data));
+            decodeStats = runner.measure(() -> {
+                decoded.clear();
+                narrowEncoder.decode(narrowBits, decoded);
+            });
+            decoded.flip();
+            runner.addResult(new BenchmarkRunner.Result(fileName, "Fixed " + narrowEncoder.getBitsPerSymbol() + "-bit",
+                    originalSize, narrowBits.getSizeInBytes() + narrowEncoder.getHeader().length, entropy,
+                    encodeStats, decodeStats, decoded.equals(data)));
+        }
+
+        System.out.printf("\n%-15s | %-9s | %-7s | %-8s | %-7s | %-6s | %-9s | %-11s | %-9s | %-9s | %-9s | %-8s\n",
+                "File Name", "Method", "Ratio", "Bits/Sym", "Entropy", "Phase",
+                "Min (ms)", "Median (ms)", "P90 (ms)", "P99 (ms)", "MB/s", "Correct");
+        for (BenchmarkRunner.Result result : runner.getResults()) {
+            printBenchmarkRow(result, "encode", result.getEncode());
+            printBenchmarkRow(result, "decode", result.getDecode());
+        }
+
+        try {
+            runner.saveCSV("benchmark_results.csv");
+            runner.saveJSON("benchmark_results.json");
+            System.out.println("\nResults saved to: benchmark_results.csv, benchmark_results.json");
+        } catch (IOException e) {
+            System.out.println("Error saving benchmark results: " + e.getMessage());
+        }
+    }
+
+    // Prints one phase (encode or decode) of a statistical benchmark result
+    private static void printBenchmarkRow(BenchmarkRunner.Result result, String phase, BenchmarkRunner.Statistics stats) {
+        System.out.printf("%-15s | %-9s | %-7.4f | %-8.4f | %-7.4f | %-6s | %-9.3f | %-11.3f | %-9.3f | %-9.3f | %-9.2f | %-8s\n",
+                result.getFileName(), result.getMethod(), result.getCompressionRatio(),
+                result.getBitsPerSymbol(), result.getEntropy(), phase,
+                stats.getMin() / 1e6, stats.getMedian() / 1e6, stats.getPercentile(90) / 1e6,
+                stats.getPercentile(99) / 1e6, stats.getMegabytesPerSecond(result.getOriginalSize()),
+                result.isCorrect() ? "Yes" : "No");
+    }
+
+    /**
+     * Compresses the same files with each SymbolModel: A-Z text, multilingual
+     * UTF-8 text (2- and 3-byte characters) and random binary data.
+     * Compressed sizes include the header with the alphabet and code lengths.
+     */
+    private static void symbolModelComparison() throws IOException {
+        String textFile = "file_1MB.txt";
+        String utf8File = "file_utf8_1MB.txt";
+        String binaryFile = "file_binary_1MB.bin";
+        int size = 1024 * 1024;
+        if (!Files.exists(Paths.get(textFile))) {
+            RandomTextGenerator.saveToFile(textFile, RandomTextGenerator.execute(size));
+        }
+        if (!Files.exists(Paths.get(utf8File))) {
+            Files.write(Paths.get(utf8File), multilingualText(size));
+        }
+        if (!Files.exists(Paths.get(binaryFile))) {
+            Files.write(Paths.get(binaryFile), RandomTextGenerator.generate(RandomTextGenerator.binary(), size, 1));
+        }
+
+        System.out.println("\n==================================================");
+        System.out.println("=========== Symbol Model Comparison ==============");
+        System.out.println("==================================================");
+        System.out.printf("%-20s | %-16s | %-9s | %-19s | %-8s | %-11s | %-11s | %-8s\n", "File Name", "Symbol Model",
+                "Alphabet", "Compressed Size (B)", "Ratio", "Encode (ms)", "Decode (ms)", "Correct");
+
+        for (String fileName : new String[]{textFile, utf8File, binaryFile}) {
+            byte[] original = Files.readAllBytes(Paths.get(fileName));
+            for (SymbolModel model : SymbolModel.values()) {
+                SymbolHuffmanEncoder encoder = new SymbolHuffmanEncoder(model);
+                long startTime = System.nanoTime();
+                PackedBitstream encodedBitstream;
+                try {
+                    encodedBitstream = encoder.encode(ByteBuffer.wrap(original));
+                } catch (IllegalArgumentException e) {
+                    System.out.printf("%-20s | %-16s | %s\n", fileName, model, e.getMessage());
+                    continue;
+                }
+                long encodeTime = (System.nanoTime() - startTime) / 1000000;
+                byte[] header = encoder.getHeader();
+
+                startTime = System.nanoTime();
+                byte[] decoded = SymbolHuffmanEncoder.decode(header, encodedBitstream);
+                long decodeTime = (System.nanoTime() - startTime) / 1000000;
+
+                long compressedSize = header.length + encodedBitstream.getSizeInBytes();
+                System.out.printf("%-20s | %-16s | %-9d | %-19d | %-8.4f | %-11d | %-11d | %-8s\n", fileName, model,
+                        encoder.getAlphabetSize(), compressedSize, (double) compressedSize / original.length,
+                        encodeTime, decodeTime, Arrays.equals(original, decoded) ? "Yes" : "No");
+            }
+        }
+    }
+
+    /**
+     * Times the code construction (tree + canonical codes) from a histogram with
+     * the PriorityQueue and the two-queue builders, for alphabets of 26 up to
+     * 65536 symbols with Zipf-distributed counts. Both must reach the same
+     * total encoded size (optimal codes).
+     */
+    private static void treeConstructionBenchmark() throws IOException {
+        BenchmarkRunner runner = new BenchmarkRunner(20, 51);
+        int[] alphabetSizes = {26, 256, 4096, 65536};
+
+        System.out.println("\n==================================================");
+        System.out.println("========= Tree Construction Benchmark ============");
+        System.out.println("==================================================");
+        System.out.printf("%-9s | %-15s | %-12s | %-12s | %-12s | %-18s\n",
+                "Alphabet", "Construction", "Median (us)", "P90 (us)", "Speedup", "Encoded Bits");
+
+        for (int alphabetSize : alphabetSizes) {
+            long[] histogram = new long[alphabetSize];
+            for (int rank = 1; rank <= alphabetSize; rank++) {
+                histogram[rank - 1] = Math.max(1, Math.round(10000000.0 / rank));
+            }
+
+            double priorityQueueMedian = 0;
+            for (HuffmanEncoder.TreeConstruction construction : HuffmanEncoder.TreeConstruction.values()) {
+                HuffmanEncoder encoder = new HuffmanEncoder();
+                encoder.setTreeConstruction(construction);
+                BenchmarkRunner.Statistics stats = runner.measure(() -> encoder.buildCodes(histogram));
+                if (construction == HuffmanEncoder.TreeConstruction.PRIORITY_QUEUE) {
+                    priorityQueueMedian = stats.getMedian();
+                }
+
+                // Total encoded size: sum of count x code length
+                CanonicalHuffmanCode code = encoder.getCanonicalCode();
+                long encodedBits = 0;
+                for (int i = 0; i < code.getSymbolCount(); i++) {
+                    encodedBits += histogram[code.getSymbol(i)] * code.getLength(i);
+                }
+                System.out.printf("%-9d | %-15s | %-12.1f | %-12.1f | %-12.2f | %-18d\n", alphabetSize, construction,
+                        stats.getMedian() / 1000.0, stats.getPercentile(90) / 1000.0,
+                        priorityQueueMedian / stats.getMedian(), encodedBits);
+            }
+        }
+    }
+
+    /**
+     * Compares the one-pass adaptive (FGK) encoder with the static encoder:
+     * throughput (median of repeated runs) and compression ratio. The static
+     * size includes the code table header, which the adaptive coder does not need.
+     */
+    private static void adaptiveHuffmanBenchmark() throws IOException {
+        BenchmarkRunner runner = new BenchmarkRunner(2, 7);
+        int size = 1024 * 1024;
+        if (!Files.exists(Paths.get("file_1MB.txt"))) {
+            RandomTextGenerator.saveToFile("file_1MB.txt", RandomTextGenerator.execute(size));
+        }
+        if (!Files.exists(Paths.get(SKEWED_FILE_NAME))) {
+            Files.write(Paths.get(SKEWED_FILE_NAME), RandomTextGenerator.generate(
+                    RandomTextGenerator.zipf(PRINTABLE_ASCII, 3.0), size, 1));
+        }
+
+        System.out.println("\n==================================================");
+        System.out.println("========= Adaptive vs. Static Huffman ============");
+        System.out.println("==================================================");
+        System.out.printf("%-19s | %-9s | %-6s | %-19s | %-8s | %-12s | %-12s | %-8s\n", "File Name", "Method",
+                "Passes", "Compressed Size (B)", "Ratio", "Encode MB/s", "Decode MB/s", "Correct");
+
+        for (String fileName : new String[]{"file_1MB.txt", SKEWED_FILE_NAME}) {
+            ByteBuffer data = InputMode.HEAP_COPY.load(Paths.get(fileName));
+            long originalSize = data.remaining();
+            ByteBuffer decoded = ByteBuffer.allocate((int) originalSize);
+
+            // Static: histogram pass, then encoding pass
+            HuffmanEncoder staticEncoder = new HuffmanEncoder();
+            PackedBitstream staticBits = staticEncoder.encode(data);
+            CanonicalHuffmanCode code = staticEncoder.getCanonicalCode();
+            BenchmarkRunner.Statistics encodeStats = runner.measure(() -> new HuffmanEncoder().encode(data));
+            BenchmarkRunner.Statistics decodeStats = runner.measure(() -> {
+                decoded.clear();
+                HuffmanEncoder.decode(code, staticBits, decoded);
+            });
+            decoded.flip();
+            printAdaptiveRow(fileName, "Static", 2, staticBits.getSizeInBytes() + staticEncoder.getCodeHeader().length,
+                    originalSize, encodeStats, decodeStats, decoded.equals(data));
+
+            // Adaptive: one pass, the tree is updated after every byte
+            PackedBitstream adaptiveBits = new AdaptiveHuffmanEncoder().encode(data);
+            encodeStats = runner.measure(() -> new AdaptiveHuffmanEncoder().encode(data));
+            decodeStats = runner.measure(() -> {
+                decoded.clear();
+                AdaptiveHuffmanEncoder.decode(adaptiveBits, decoded);
+            });
+            decoded.flip();
+            printAdaptiveRow(fileName, "Adaptive", 1, adaptiveBits.getSizeInBytes(),
+                    originalSize, encodeStats, decodeStats, decoded.equals(data));
+        }
+    }
+
+    // Prints one row of the adaptive vs. static comparison
+    private static void printAdaptiveRow(String fileName, String method, int passes, long compressedSize, long originalSize,
+            BenchmarkRunner.Statistics encodeStats, BenchmarkRunner.Statistics decodeStats, boolean isCorrect) {
+        System.out.printf("%-19s | %-9s | %-6d | %-19d | %-8.4f | %-12.2f | %-12.2f | %-8s\n", fileName, method, passes,
+                compressedSize, (double) compressedSize / originalSize, encodeStats.getMegabytesPerSecond(originalSize),
+                decodeStats.getMegabytesPerSecond(originalSize), isCorrect ? "Yes" : "No");
+    }
+
+    /**
+     * Encodes many small messages from a few sources and compares building a
+     * tree per message, the LRU code table cache and a trained dictionary.
+     * Per message, the code table header is sent with every message. With the
+     * cache, the header is sent on a miss and a 2-byte table id on a hit (the
+     * decoder keeps the tables it received). The dictionary is never sent.
+     */
+    private static void codeTableCacheBenchmark() throws IOException {
+        int messageCount = 2000;
+        int messageSize = 1024;
+        BenchmarkRunner runner = new BenchmarkRunner(2, 7);
+
+        // Each message comes from one of four sources, like log lines or JSON records
+        CorpusGenerator[] sources = {
+            RandomTextGenerator.zipf(PRINTABLE_ASCII, 1.5),
+            RandomTextGenerator.zipf(PRINTABLE_ASCII, 3.0),
+            RandomTextGenerator.skewed(0.5),
+            RandomTextGenerator.uniform("ABCDEFGHIJKLMNOPQRSTUVWXYZ")
+        };
+        Random random = new Random(1);
+        ByteBuffer[] messages = new ByteBuffer[messageCount];
+        long originalSize = 0;
+        for (int i = 0; i < messageCount; i++) {
+            byte[] message = RandomTextGenerator.generate(sources[random.nextInt(sources.length)], messageSize, i);
+            messages[i] = ByteBuffer.wrap(message);
+            originalSize += message.length;
+        }
+
+        System.out.println("\n==================================================");
+        System.out.println("============ Code Table Cache Benchmark ==========");
+        System.out.println("==================================================");
+        System.out.println("Messages: " + messageCount + " x " + messageSize + " B from " + sources.length + " sources");
+        System.out.printf("%-20s | %-15s | %-8s | %-12s | %-16s | %-8s | %-8s\n", "Mode", "Total Size (B)",
+                "Ratio", "Median (ms)", "Per Message (us)", "Hit Rate", "Correct");
+
+        // Per message: count, build the tree and send the table every time
+        PackedBitstream[] encoded = new PackedBitstream[messageCount];
+        CanonicalHuffmanCode[] codes = new CanonicalHuffmanCode[messageCount];
+        BenchmarkRunner.Statistics stats = runner.measure(() -> {
+            for (int i = 0; i < messageCount; i++) {
+                HuffmanEncoder encoder = new HuffmanEncoder();
+                encoded[i] = encoder.encode(messages[i]);
+                codes[i] = encoder.getCanonicalCode();
+            }
         });
-        System.out.println("\n--- Fixed-Length (Baseline) Test for " + fileName + " ---");
-        System.out.println("Decoding Verification: " + (isCorrect ? "Correct" : "Incorrect"));
+        long perMessageSize = 0;
+        for (int i = 0; i < messageCount; i++) {
+            perMessageSize += encoded[i].getSizeInBytes() + codes[i].toHeaderBytes().length;
+        }
+        printCacheRow("Per-Message Tree", perMessageSize, originalSize, stats, messageCount, "-",
+                decodesCorrectly(messages, encoded, codes));
+
+        // LRU cache: a new cache per run, so every run has the same misses
+        for (int fingerprintLength : new int[]{6, 4}) {
+            CodeTableCache[] cache = new CodeTableCache[1];
+            boolean[] isMiss = new boolean[messageCount];
+            stats = runner.measure(() -> {
+                cache[0] = new CodeTableCache(64, fingerprintLength);
+                HuffmanEncoder encoder = new HuffmanEncoder();
+                for (int i = 0; i < messageCount; i++) {
+                    long misses = cache[0].getMisses();
+                    encoded[i] = encoder.encode(messages[i], cache[0]);
+                    codes[i] = encoder.getCanonicalCode();
+                    isMiss[i] = cache[0].getMisses() > misses;
+                }
+            });
+            long cacheSize = 0;
+            for (int i = 0; i < messageCount; i++) {
+                cacheSize += encoded[i].getSizeInBytes() + (isMiss[i] ? codes[i].toHeaderBytes().length : 2);
+            }
+            printCacheRow("LRU Cache (L<=" + fingerprintLength + ")", cacheSize, originalSize, stats,
+                    messageCount, String.format("%.3f", cache[0].getHitRate()), decodesCorrectly(messages, encoded, codes));
+        }
+
+        // Trained dictionary: one table from the first 100 messages, never sent
+        ByteBuffer[] samples = new ByteBuffer[100];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = messages[i].duplicate();
+        }
+        CanonicalHuffmanCode dictionary = CodeTableCache.train(samples);
+        stats = runner.measure(() -> {
+            HuffmanEncoder encoder = new HuffmanEncoder();
+            encoder.useCode(dictionary);
+            for (int i = 0; i < messageCount; i++) {
+                BitWriter writer = new BitWriter(messageSize);
+                encoder.encode(messages[i], writer);
+                encoded[i] = writer.toBitstream();
+            }
+        });
+        Arrays.fill(codes, dictionary);
+        long dictionarySize = 0;
+        for (PackedBitstream bits : encoded) {
+            dictionarySize += bits.getSizeInBytes();
+        }
+        printCacheRow("Trained Dictionary", dictionarySize, originalSize, stats, messageCount, "-",
+                decodesCorrectly(messages, encoded, codes));
+    }
+
+    /**
+     * Encodes and decodes many small messages as separate tasks on a thread
+     * pool, all with the same (trained) code. Compares a new HuffmanEncoder
+     * and decode table per request with one shared HuffmanCodeModel whose
+     * per-call buffers come from the HuffmanContext pool.
+     */
+    private static void sharedModelBenchmark(int threads) throws IOException {
+        int messageCount = 4000;
+        int messageSize = 1024;
+        BenchmarkRunner runner = new BenchmarkRunner(2, 7);
+
+        ByteBuffer[] messages = new ByteBuffer[messageCount];
+        CorpusGenerator source = RandomTextGenerator.zipf(PRINTABLE_ASCII, 1.5);
+        for (int i = 0; i < messageCount; i++) {
+            messages[i] = ByteBuffer.wrap(RandomTextGenerator.generate(source, messageSize, i));
+        }
+        CanonicalHuffmanCode code = CodeTableCache.train(Arrays.copyOf(messages, 100));
+        HuffmanCodeModel model = HuffmanCodeModel.of(code);
+
+        System.out.println("\n==================================================");
+        System.out.println("============ Shared Model Benchmark ==============");
+        System.out.println("==================================================");
+        System.out.println("Messages: " + messageCount + " x " + messageSize + " B on " + threads + " threads");
+        System.out.printf("%-22s | %-12s | %-14s | %-17s | %-8s\n", "Mode", "Median (ms)", "Messages/s",
+                "Contexts Created", "Correct");
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ByteBuffer[] decoded = new ByteBuffer[messageCount];
+        for (int i = 0; i < messageCount; i++) {
+            decoded[i] = ByteBuffer.allocate(messageSize);
+        }
+        try {
+            // Encoder per request: new encoder, code arrays, writer and decode table for every message
+            BenchmarkRunner.Statistics stats = runner.measure(() -> runTasks(pool, messageCount, i -> {
+                HuffmanEncoder encoder = new HuffmanEncoder();
+                encoder.useCode(code);
+                BitWriter writer = new BitWriter(messageSize);
+                encoder.encode(messages[i], writer);
+                decoded[i].clear();
+                HuffmanEncoder.decode(code, writer.toBitstream(), decoded[i]);
+            }));
+            printSharedModelRow("Encoder per Request", stats, messageCount, "-", decodedCorrectly(messages, decoded));
+
+            // Shared model: the code and the decode table are built once, buffers come from the pool
+            int createdBefore = HuffmanContext.getCreatedCount();
+            stats = runner.measure(() -> runTasks(pool, messageCount, i -> {
+                PackedBitstream bits = model.encode(messages[i]);
+                decoded[i].clear();
+                model.decode(bits, decoded[i]);
+            }));
+            printSharedModelRow("Shared Model + Pool", stats, messageCount,
+                    String.valueOf(HuffmanContext.getCreatedCount() - createdBefore), decodedCorrectly(messages, decoded));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Runs task(0) .. task(count - 1) on the pool and waits for all of them
+    private static void runTasks(ForkJoinPool pool, int count, IntConsumer task) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            tasks.add(pool.submit(() -> task.accept(index)));
+        }
+        for (ForkJoinTask<?> running : tasks) {
+            running.join();
+        }
+    }
+
+    // True if every decoded buffer (after flip) equals its message
+    private static boolean decodedCorrectly(ByteBuffer[] messages, ByteBuffer[] decoded) {
+        for (int i = 0; i < messages.length; i++) {
+            decoded[i].flip();
+            if (!decoded[i].equals(messages[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Prints one row of the shared model comparison
+    private static void printSharedModelRow(String mode, BenchmarkRunner.Statistics stats, int messageCount,
+            String contextsCreated, boolean isCorrect) {
+        System.out.printf("%-22s | %-12.2f | %-14.0f | %-17s | %-8s\n", mode, stats.getMedian() / 1e6,
+                messageCount / (stats.getMedian() / 1e9), contextsCreated, isCorrect ? "Yes" : "No");
+    }
+
+    // Decodes every message with its code and compares it with the original
+    private static boolean decodesCorrectly(ByteBuffer[] messages, PackedBitstream[] encoded, CanonicalHuffmanCode[] codes) {
+        for (int i = 0; i < messages.length; i++) {
+            ByteBuffer decoded = ByteBuffer.allocate(messages[i].remaining());
+            HuffmanEncoder.decode(codes[i], encoded[i], decoded);
+            decoded.flip();
+            if (!decoded.equals(messages[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Prints one row of the code table cache comparison
+    private static void printCacheRow(String mode, long totalSize, long originalSize, BenchmarkRunner.Statistics stats,
+            int messageCount, String hitRate, boolean isCorrect) {
+        System.out.printf("%-20s | %-15d | %-8.4f | %-12.2f | %-16.2f | %-8s | %-8s\n", mode, totalSize,
+                (double) totalSize / originalSize, stats.getMedian() / 1e6, stats.getMedian() / 1e3 / messageCount,
+                hitRate, isCorrect ? "Yes" : "No");
+    }
+
+    /**
+     * Runs every codec on the same inputs with repeated measurements: random
+     * text, Markov text and repetitive log lines (where LZ77 finds long matches).
+     * Sizes include each codec's header; throughput is input MB per second.
+     */
+    private static void codecComparison(List<Codec> codecs) throws IOException {
+        BenchmarkRunner runner = new BenchmarkRunner(2, 7);
+        int size = 1024 * 1024;
+        String[] inputNames = {"random text", "markov text", "log lines"};
+        byte[][] inputs = {
+            RandomTextGenerator.execute(size).getBytes(StandardCharsets.UTF_8),
+            RandomTextGenerator.generate(RandomTextGenerator.markov(multilingualText(256 * 1024), 2), size, 1),
+            repetitiveText(size)
+        };
+
+        System.out.println("\n==================================================");
+        System.out.println("=============== Codec Comparison =================");
+        System.out.println("==================================================");
+        System.out.printf("%-12s | %-15s | %-15s | %-8s | %-12s | %-12s | %-8s\n", "Input", "Codec",
+                "Compressed (B)", "Ratio", "Encode MB/s", "Decode MB/s", "Correct");
 
+        for (int i = 0; i < inputs.length; i++) {
+            ByteBuffer data = ByteBuffer.wrap(inputs[i]);
+            for (Codec codec : codecs) {
+                ByteBuffer compressed = codec.compress(data);
+                boolean isCorrect = codec.decompress(compressed).equals(data);
+                BenchmarkRunner.Statistics encodeStats = runner.measure(() -> codec.compress(data));
+                BenchmarkRunner.Statistics decodeStats = runner.measure(() -> codec.decompress(compressed));
+                System.out.printf("%-12s | %-15s | %-15d | %-8.4f | %-12.2f | %-12.2f | %-8s\n", inputNames[i],
+                        codec.getName(), compressed.remaining(), (double) compressed.remaining() / data.remaining(),
+                        encodeStats.getMegabytesPerSecond(data.remaining()),
+                        decodeStats.getMegabytesPerSecond(data.remaining()), isCorrect ? "Yes" : "No");
+            }
+        }
+    }
+
+    /**
+     * Records HuffmanMetrics while the test files are encoded, decoded and
+     * written as .huf containers, then prints the per-phase report. The same
+     * counters stay visible over JMX as long as the program runs.
+     */
+    private static void encoderMetricsReport(int rounds) throws IOException {
+        int[] fileSizes = {50 * 1024, 200 * 1024, 1024 * 1024};
+        HuffmanMetrics metrics = HuffmanMetrics.get();
+        HuffmanMetrics.registerMBean();
+        boolean wasEnabled = metrics.isEnabled();
+        metrics.reset();
+        metrics.setEnabled(true);
+
+        Path container = Files.createTempFile("metrics", ".huf");
+        try {
+            for (int f = 0; f < FILE_NAMES.length; f++) {
+                String fileName = FILE_NAMES[f];
+                if (!Files.exists(Paths.get(fileName))) {
+                    RandomTextGenerator.saveToFile(fileName, RandomTextGenerator.execute(fileSizes[f]));
+                }
+                for (int round = 0; round < rounds; round++) {
+                    HuffmanEncoder encoder = new HuffmanEncoder();
+                    PackedBitstream bits = encoder.encodeToBits(fileName, InputMode.HEAP_COPY);
+                    encoder.decodeToBytes(bits, HuffmanEncoder.DecodeMode.LOOKUP_TABLE);
+                    HuffmanFileFormat.compress(Paths.get(fileName), container);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(container);
+            metrics.setEnabled(wasEnabled);
+        }
+
+        System.out.println("\n==================================================");
+        System.out.println("============= Encoder Phase Metrics ==============");
+        System.out.println("==================================================");
+        System.out.println(rounds + " rounds over " + FILE_NAMES.length + " files (JMX: " + HuffmanMetrics.OBJECT_NAME + ")");
+        System.out.printf("%-10s | %-7s | %-12s | %-12s | %-11s | %-10s | %-11s | %-14s\n", "Phase", "Calls",
+                "Median (us)", "P99 (us)", "Total (ms)", "MB/s", "Symbols", "Allocated (KB)");
+        for (HuffmanMetrics.Phase phase : HuffmanMetrics.Phase.values()) {
+            System.out.printf("%-10s | %-7d | %-12.1f | %-12.1f | %-11.2f | %-10.2f | %-11d | %-14d\n", phase,
+                    metrics.getCount(phase), metrics.getPercentileNanos(phase, 50) / 1e3,
+                    metrics.getPercentileNanos(phase, 99) / 1e3, metrics.getTotalNanos(phase) / 1e6,
+                    metrics.getMegabytesPerSecond(phase), metrics.getSymbols(phase),
+                    metrics.getAllocatedBytes(phase) / 1024);
+        }
+        System.out.println("(Percentiles are power-of-two bucket upper bounds; MB/s is bytes processed per phase time)");
+
+        System.out.println("\nCode length distribution over " + metrics.getCodesBuilt() + " built codes:");
+        long[] distribution = metrics.getCodeLengthDistribution();
+        for (int length = 1; length < distribution.length; length++) {
+            if (distribution[length] > 0) {
+                System.out.printf("  %2d bits: %d codewords\n", length, distribution[length]);
+            }
+        }
+    }
+
+    // Server-style log lines: a few templates with varying numbers, like a real access log
+    private static byte[] repetitiveText(int size) {
+        String[] methods = {"GET", "POST", "PUT", "DELETE"};
+        String[] paths = {"/index.html", "/api/users", "/api/orders", "/static/app.js", "/login"};
+        int[] statuses = {200, 200, 200, 201, 304, 404, 500};
+        Random random = new Random(1);
+        StringBuilder text = new StringBuilder(size + 128);
+        while (text.length() < size) {
+            text.append("2024-03-").append(10 + random.nextInt(20)).append(" 12:")
+                    .append(10 + random.nextInt(50)).append(":").append(10 + random.nextInt(50))
+                    .append(" INFO 192.168.1.").append(random.nextInt(256)).append(" \"")
+                    .append(methods[random.nextInt(methods.length)]).append(" ")
+                    .append(paths[random.nextInt(paths.length)]).append(" HTTP/1.1\" ")
+                    .append(statuses[random.nextInt(statuses.length)]).append(" ")
+                    .append(random.nextInt(50000)).append("\n");
+        }
+        return Arrays.copyOf(text.toString().getBytes(StandardCharsets.UTF_8), size);
+    }
+
+    // Random words from Latin, Greek, Cyrillic, Arabic and CJK letters, encoded as UTF-8
+    private static byte[] multilingualText(int size) {
+        String[] alphabets = {
+            "abcdefghijklmnopqrstuvwxyz",
+            "\u03b1\u03b2\u03b3\u03b4\u03b5\u03b6\u03b7\u03b8\u03b9\u03ba\u03bb\u03bc",
+            "\u0430\u0431\u0432\u0433\u0434\u0435\u0436\u0437\u0438\u043a\u043b\u043c",
+            "\u0627\u0628\u062a\u062b\u062c\u062d\u062e\u062f\u0630\u0631\u0632\u0633",
+            "\u4e00\u4e8c\u4e09\u56db\u4e94\u516d\u4e03\u516b\u4e5d\u5341\u4eba\u5927"
+        };
+        Random random = new Random(1);
+        StringBuilder text = new StringBuilder();
+        while (text.length() < size / 2) {
+            String letters = alphabets[random.nextInt(alphabets.length)];
+            int wordLength = 2 + random.nextInt(8);
+            for (int i = 0; i < wordLength; i++) {
+                text.append(letters.charAt(random.nextInt(letters.length())));
+            }
+            text.append(random.nextInt(10) == 0 ? ".\n" : " ");
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
     }
 
     // Prints the final results table to the console
@@ -275,8 +1416,51 @@ public class Main {
 
         // Print with fixed-width formatting for alignment
         for (String[] row : resultsTable) {
-            System.out.printf("%-15s | %-10s | %-18s | %-22s | %-20s | %-18s | %-20s\n",
-                    row[0], row[1], row[2], row[3], row[4], row[5], row[6]);
+            System.out.printf("%-19s | %-15s | %-18s | %-22s | %-20s | %-18s | %-18s | %-15s\n",
+                    row[0], row[1], row[2], row[3], row[4], row[5], row[6], row[7]);
+        }
+    }
+
+    /**
+     * Shows what the code length limits cost and gain: compression ratio
+     * compared with the unlimited code, and the median table-decode time
+     * over repeated runs (short codes never leave the single-lookup path).
+     */
+    private static void printLengthLimitCost(String[] fileNames) throws IOException {
+        BenchmarkRunner runner = new BenchmarkRunner(5, 15);
+        System.out.println("\n--- Length-Limited Codes: Ratio Cost vs. Decode Speed ---");
+        System.out.printf("%-19s | %-10s | %-15s | %-8s | %-12s | %-18s | %-14s\n", "File Name", "Limit",
+                "Max Code Length", "Ratio", "Ratio Cost", "Median Decode (ms)", "Decode Speedup");
+
+        for (String fileName : fileNames) {
+            ByteBuffer data = InputMode.HEAP_COPY.load(Paths.get(fileName));
+            ByteBuffer decoded = ByteBuffer.allocate(data.remaining());
+            double unlimitedRatio = 0;
+            double unlimitedDecode = 0;
+
+            int[] limits = new int[CODE_LENGTH_LIMITS.length + 1];
+            limits[0] = CanonicalHuffmanCode.MAX_CODE_LENGTH;
+            System.arraycopy(CODE_LENGTH_LIMITS, 0, limits, 1, CODE_LENGTH_LIMITS.length);
+            for (int limit : limits) {
+                HuffmanEncoder encoder = new HuffmanEncoder();
+                encoder.setMaxCodeLength(limit);
+                PackedBitstream encodedBitstream = encoder.encode(data);
+                CanonicalHuffmanCode code = encoder.getCanonicalCode();
+                BenchmarkRunner.Statistics stats = runner.measure(() -> {
+                    decoded.clear();
+                    HuffmanEncoder.decode(code, encodedBitstream, decoded);
+                });
+
+                double ratio = (double) encodedBitstream.getSizeInBytes() / data.remaining();
+                if (limit == CanonicalHuffmanCode.MAX_CODE_LENGTH) {
+                    unlimitedRatio = ratio;
+                    unlimitedDecode = stats.getMedian();
+                }
+                System.out.printf("%-19s | %-10s | %-15d | %-8.4f | %-12s | %-18.3f | %-14.2f\n", fileName,
+                        limit == CanonicalHuffmanCode.MAX_CODE_LENGTH ? "none" : String.valueOf(limit),
+                        code.getMaxLength(), ratio, String.format("%+.3f%%", (ratio / unlimitedRatio - 1) * 100),
+                        stats.getMedian() / 1e6, unlimitedDecode / stats.getMedian());
+            }
         }
     }
 
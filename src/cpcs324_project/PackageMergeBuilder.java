@@ -0,0 +1,128 @@
+package cpcs324_project;
+
+import java.util.Arrays;
+
+/**
+ * Optimal length-limited prefix codes with the package-merge algorithm
+ * (Larmore and Hirschberg).
+ *
+ * Think of each symbol as a coin of value 2^-level, one per allowed level
+ * 1..maxLength, weighted by its frequency. Starting at the deepest level,
+ * the list of coins is sorted, adjacent pairs are "packaged" (weights added)
+ * and merged with the coins of the next level up. The 2n-2 cheapest items of
+ * the level-1 list decide the code lengths: a symbol's length is the number
+ * of levels where its coin is (directly or inside a package) selected.
+ *
+ * Time and memory are O(n * maxLength) with flat primitive arrays.
+ */
+public class PackageMergeBuilder {
+
+    /**
+     * Computes optimal code lengths that do not exceed maxLength.
+     * @param frequencies Counts indexed by symbol (at most 65536 symbols).
+     * @param maxLength The longest allowed code length (1..32).
+     * @return The code length of each symbol (0 for unused symbols).
+     * @throws IllegalArgumentException If the used symbols do not fit in maxLength bits.
+     */
+    public static int[] buildCodeLengths(long[] frequencies, int maxLength) {
+        if (maxLength < 1 || maxLength > CanonicalHuffmanCode.MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Code length limit must be between 1 and "
+                    + CanonicalHuffmanCode.MAX_CODE_LENGTH + ": " + maxLength);
+        }
+        if (frequencies.length > 65536) {
+            throw new IllegalArgumentException("At most 65536 symbols are supported: " + frequencies.length);
+        }
+        int[] codeLengths = new int[frequencies.length];
+
+        // Used symbols sorted by (frequency, symbol)
+        int n = 0;
+        int[] sorted = new int[frequencies.length];
+        long[] keys = new long[frequencies.length];
+        for (int symbol = 0; symbol < frequencies.length; symbol++) {
+            if (frequencies[symbol] > 0) {
+                keys[n++] = symbol;
+            }
+        }
+        if (n == 0) {
+            return codeLengths;
+        }
+        if (n == 1) {
+            codeLengths[(int) keys[0]] = 1;
+            return codeLengths;
+        }
+        if (maxLength < 31 && n > 1 << maxLength) {
+            throw new IllegalArgumentException(n + " symbols do not fit in codes of at most " + maxLength + " bits");
+        }
+        long[] leafWeight = new long[n];
+        sortByFrequency(frequencies, keys, n);
+        for (int i = 0; i < n; i++) {
+            sorted[i] = (int) keys[i];
+            leafWeight[i] = frequencies[sorted[i]];
+        }
+
+        // isLeaf[level][i]: item i of the merged list at that level is a coin (true) or a package
+        boolean[][] isLeaf = new boolean[maxLength][];
+        long[] weight = leafWeight.clone();
+        int size = n;
+        isLeaf[maxLength - 1] = new boolean[n];
+        Arrays.fill(isLeaf[maxLength - 1], true);
+
+        for (int level = maxLength - 2; level >= 0; level--) {
+            // Package adjacent pairs of the deeper list, then merge with the coins
+            int packages = size / 2;
+            long[] merged = new long[n + packages];
+            boolean[] leafFlags = new boolean[n + packages];
+            int leaf = 0;
+            int pack = 0;
+            for (int i = 0; i < merged.length; i++) {
+                long packageWeight = pack < packages ? weight[2 * pack] + weight[2 * pack + 1] : Long.MAX_VALUE;
+                if (leaf < n && leafWeight[leaf] <= packageWeight) {
+                    merged[i] = leafWeight[leaf++];
+                    leafFlags[i] = true;
+                } else {
+                    merged[i] = packageWeight;
+                    pack++;
+                }
+            }
+            weight = merged;
+            size = merged.length;
+            isLeaf[level] = leafFlags;
+        }
+
+        // Select the 2n-2 cheapest items at level 1 and expand packages level by level
+        int selected = 2 * n - 2;
+        for (int level = 0; level < maxLength && selected > 0; level++) {
+            int leaves = 0;
+            for (int i = 0; i < selected; i++) {
+                if (isLeaf[level][i]) leaves++;
+            }
+            // The selected coins are always the 'leaves' cheapest symbols
+            for (int i = 0; i < leaves; i++) {
+                codeLengths[sorted[i]]++;
+            }
+            selected = 2 * (selected - leaves);
+        }
+
+        // Cheaper symbols got longer codes; order is already by (frequency, symbol)
+        return codeLengths;
+    }
+
+    // Sorts the first n symbol indices in keys[] by (frequency, symbol)
+    private static void sortByFrequency(long[] frequencies, long[] keys, int n) {
+        // Rank the distinct frequencies so they fit next to the 16-bit symbol in one long
+        long[] counts = new long[n];
+        for (int i = 0; i < n; i++) {
+            counts[i] = frequencies[(int) keys[i]];
+        }
+        Arrays.sort(counts);
+        for (int i = 0; i < n; i++) {
+            int symbol = (int) keys[i];
+            long rank = Arrays.binarySearch(counts, frequencies[symbol]);
+            keys[i] = (rank << 16) | symbol;
+        }
+        Arrays.sort(keys, 0, n);
+        for (int i = 0; i < n; i++) {
+            keys[i] &= 0xFFFF;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package cpcs324_project;
+
+/**
+ * Holds an encoded bitstream packed 8 bits per byte.
+ * Bits are stored most-significant-bit first, so the first encoded bit
+ * is the highest bit of data[0]. The last byte is padded with zeros.
+ */
+public class PackedBitstream {
+
+    private final byte[] data;    // The packed bits
+    private final long bitLength; // Number of meaningful bits in data
+
+    public PackedBitstream(byte[] data, long bitLength) {
+        this.data = data;
+        this.bitLength = bitLength;
+    }
+
+    /**
+     * Returns the packed bytes (the last byte may be partially used).
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Returns the number of meaningful bits in the stream.
+     */
+    public long getBitLength() {
+        return bitLength;
+    }
+
+    /**
+     * Returns the real size of the packed stream in bytes.
+     */
+    public long getSizeInBytes() {
+        return data.length;
+    }
+}
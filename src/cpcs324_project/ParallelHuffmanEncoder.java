@@ -0,0 +1,148 @@
+package cpcs324_project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Multi-threaded Huffman encoder built on a fork/join pool.
+ *
+ * - Counting: the input is split recursively and every leaf task builds its
+ *   own histogram; histograms are merged on the way back up, before the tree is built.
+ * - Encoding: the input is cut into chunks that are encoded concurrently into
+ *   independent bit buffers, then concatenated in order with bit-offset fix-up.
+ *
+ * The output is bit-for-bit identical to HuffmanEncoder.encode(ByteBuffer).
+ */
+public class ParallelHuffmanEncoder implements AutoCloseable {
+
+    // Inputs smaller than this are counted/encoded by a single task
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int threads;
+    private final HuffmanEncoder encoder = new HuffmanEncoder(); // Holds the codes of the last input
+
+    /**
+     * @param threads The number of worker threads.
+     */
+    public ParallelHuffmanEncoder(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+        }
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Encodes the file as raw bytes, loaded with the selected input mode.
+     */
+    public PackedBitstream encodeToBits(String fileName, InputMode mode) throws IOException {
+        return encode(mode.load(Paths.get(fileName)));
+    }
+
+    /**
+     * Encodes raw bytes using all worker threads.
+     * @param data The bytes between position and limit are encoded (position is not changed).
+     * @return The packed encoded bitstream.
+     */
+    public PackedBitstream encode(ByteBuffer data) {
+        // 1. Per-task histograms merged into one
+        long[] histogram = pool.invoke(new CountTask(data.duplicate()));
+        encoder.buildCodes(histogram);
+
+        // 2. Encode chunks concurrently (a few chunks per thread to balance the load)
+        int length = data.remaining();
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, length / (threads * 4) + 1);
+        List<ForkJoinTask<PackedBitstream>> tasks = new ArrayList<>();
+        for (int start = 0; start < length; start += chunkSize) {
+            final ByteBuffer chunk = slice(data, start, Math.min(chunkSize, length - start));
+            tasks.add(pool.submit(() -> {
+                BitWriter chunkWriter = new BitWriter(chunk.remaining() / 2);
+                encoder.encode(chunk, chunkWriter);
+                return chunkWriter.toBitstream();
+            }));
+        }
+
+        // 3. Concatenate the chunk bitstreams in input order
+        List<PackedBitstream> parts = new ArrayList<>();
+        long totalBits = 0;
+        for (ForkJoinTask<PackedBitstream> task : tasks) {
+            PackedBitstream part = task.join();
+            parts.add(part);
+            totalBits += part.getBitLength();
+        }
+        BitWriter writer = new BitWriter((int) Math.min((totalBits + 7) / 8, Integer.MAX_VALUE - 8));
+        for (PackedBitstream part : parts) {
+            writer.writeBitstream(part);
+        }
+        return writer.toBitstream();
+    }
+
+    /**
+     * Returns the encoder holding the codes of the last encoded input
+     * (for the code header, canonical code and frequencies).
+     */
+    public HuffmanEncoder getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * Returns the number of worker threads.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // Returns a view of 'length' bytes starting 'start' bytes after the buffer's position
+    private static ByteBuffer slice(ByteBuffer data, int start, int length) {
+        ByteBuffer view = data.duplicate();
+        view.position(data.position() + start);
+        view.limit(data.position() + start + length);
+        return view;
+    }
+
+    /**
+     * Counts a range of bytes, splitting it in halves until it is small enough.
+     */
+    private static class CountTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer data;
+
+        CountTask(ByteBuffer data) {
+            this.data = data;
+        }
+
+        @Override
+        protected long[] compute() {
+            int length = data.remaining();
+            if (length <= MIN_CHUNK_SIZE * 4) {
+                long[] histogram = new long[256];
+                HuffmanEncoder.countBytesUnrolled(data, histogram);
+                return histogram;
+            }
+
+            int half = length / 2;
+            CountTask left = new CountTask(slice(data, 0, half));
+            CountTask right = new CountTask(slice(data, half, length - half));
+            left.fork();
+            long[] histogram = right.compute();
+            long[] leftHistogram = left.join();
+            for (int symbol = 0; symbol < 256; symbol++) {
+                histogram[symbol] += leftHistogram[symbol];
+            }
+            return histogram;
+        }
+    }
+}
@@ -2,15 +2,37 @@
 package cpcs324_project;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
+/**
+ * Generates test corpora.
+ *
+ * execute() produces the original uniform A-Z text. The factory methods
+ * return CorpusGenerators for other distributions (Zipf, order-k Markov,
+ * binary, skewed and degenerate), and generate()/generateToFile() produce
+ * reproducible corpora from a seed, one 1 MB chunk per fork/join task.
+ */
 public class RandomTextGenerator {
 
     // Character set limited to A-Z (uppercase only) 
     private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
 
+    // Bytes generated per task; each chunk has its own random stream
+    private static final int CHUNK_SIZE = 1 << 20;
+
     /**
      * Generates a random text string of a specified length.
      * @param length The desired number of characters (size in bytes).
@@ -39,4 +61,231 @@ public class RandomTextGenerator {
         System.out.println("[Done]File created and saved: " + fileName + 
                            " | Character Count: " + content.length() + " chars");
     }
+
+    /**
+     * Uniform distribution over the characters of an alphabet.
+     */
+    public static CorpusGenerator uniform(String alphabet) {
+        byte[] symbols = alphabet.getBytes();
+        return (output, offset, length, random) -> {
+            for (int i = offset; i < offset + length; i++) {
+                output[i] = symbols[random.nextInt(symbols.length)];
+            }
+        };
+    }
+
+    /**
+     * Uniform binary data: every byte value 0-255 is equally likely.
+     */
+    public static CorpusGenerator binary() {
+        return (output, offset, length, random) -> {
+            int i = offset;
+            int end = offset + length;
+            // 8 bytes per random number
+            for (; i + 7 < end; i += 8) {
+                long bits = random.nextLong();
+                for (int b = 0; b < 8; b++) {
+                    output[i + b] = (byte) (bits >>> (b * 8));
+                }
+            }
+            for (; i < end; i++) {
+                output[i] = (byte) random.nextInt(256);
+            }
+        };
+    }
+
+    /**
+     * Zipf distribution over the characters of an alphabet: the character of
+     * rank k (starting at 1) has weight 1 / k^exponent, like word and letter
+     * frequencies in natural text.
+     */
+    public static CorpusGenerator zipf(String alphabet, double exponent) {
+        byte[] symbols = alphabet.getBytes();
+        double[] weights = new double[256];
+        for (int rank = 1; rank <= symbols.length; rank++) {
+            weights[symbols[rank - 1] & 0xFF] += 1.0 / Math.pow(rank, exponent);
+        }
+        return fromWeights(weights);
+    }
+
+    /**
+     * Highly skewed A-Z text: 'A' has the given probability and the other
+     * letters share the rest equally.
+     * @param topProbability The probability of the most frequent letter (0..1).
+     */
+    public static CorpusGenerator skewed(double topProbability) {
+        double[] weights = new double[256];
+        weights['A'] = topProbability;
+        for (int c = 'B'; c <= 'Z'; c++) {
+            weights[c] = (1.0 - topProbability) / 25;
+        }
+        return fromWeights(weights);
+    }
+
+    /**
+     * Geometric distribution over all byte values: P(k) is proportional to ratio^k.
+     * A ratio of 0.5 gives the deepest possible Huffman trees (one new level per symbol).
+     */
+    public static CorpusGenerator geometric(double ratio) {
+        double[] weights = new double[256];
+        double weight = 1.0;
+        for (int symbol = 0; symbol < 256 && weight > 0; symbol++) {
+            weights[symbol] = weight;
+            weight *= ratio;
+        }
+        return fromWeights(weights);
+    }
+
+    /**
+     * Degenerate input: the same byte repeated (a single-leaf Huffman tree).
+     */
+    public static CorpusGenerator degenerate(byte symbol) {
+        return (output, offset, length, random) -> {
+            for (int i = offset; i < offset + length; i++) {
+                output[i] = symbol;
+            }
+        };
+    }
+
+    /**
+     * Any fixed byte distribution.
+     * @param weights Non-negative weights indexed by byte value.
+     */
+    public static CorpusGenerator fromWeights(double[] weights) {
+        AliasSampler sampler = new AliasSampler(weights);
+        return (output, offset, length, random) -> {
+            for (int i = offset; i < offset + length; i++) {
+                output[i] = sampler.sample(random);
+            }
+        };
+    }
+
+    /**
+     * Order-k Markov model trained on a sample file: each byte is drawn from
+     * the bytes that followed the previous k bytes in the sample.
+     * @param sampleFile The training text.
+     * @param order The context length k (0..7).
+     */
+    public static CorpusGenerator markov(Path sampleFile, int order) throws IOException {
+        return markov(Files.readAllBytes(sampleFile), order);
+    }
+
+    /**
+     * Order-k Markov model trained on sample bytes.
+     * @param sample The training data (longer than the order).
+     * @param order The context length k (0..7).
+     */
+    public static CorpusGenerator markov(byte[] sample, int order) {
+        if (order < 0 || order > 7) {
+            throw new IllegalArgumentException("Markov order must be between 0 and 7: " + order);
+        }
+        if (sample.length <= order) {
+            throw new IllegalArgumentException("The sample must be longer than the order");
+        }
+
+        // The last k bytes packed into a long are the context key
+        long contextMask = order == 0 ? 0 : (1L << (8 * order)) - 1;
+        Map<Long, long[]> counts = new HashMap<>();
+        long[] order0Counts = new long[256];
+        long context = 0;
+        for (int i = 0; i < sample.length; i++) {
+            int symbol = sample[i] & 0xFF;
+            order0Counts[symbol]++;
+            if (i >= order) {
+                counts.computeIfAbsent(context, key -> new long[256])[symbol]++;
+            }
+            context = ((context << 8) | symbol) & contextMask;
+        }
+
+        Map<Long, AliasSampler> samplers = new HashMap<>();
+        for (Map.Entry<Long, long[]> entry : counts.entrySet()) {
+            samplers.put(entry.getKey(), AliasSampler.fromCounts(entry.getValue()));
+        }
+        AliasSampler order0 = AliasSampler.fromCounts(order0Counts);
+
+        return (output, offset, length, random) -> {
+            // Each chunk starts from the context at a random place in the sample
+            int start = random.nextInt(sample.length - order);
+            long state = 0;
+            for (int i = 0; i < order; i++) {
+                state = (state << 8) | (sample[start + i] & 0xFF);
+            }
+            for (int i = offset; i < offset + length; i++) {
+                AliasSampler sampler = samplers.get(state);
+                // A context seen only at the very end of the sample has no successor
+                byte symbol = (sampler != null ? sampler : order0).sample(random);
+                output[i] = symbol;
+                state = ((state << 8) | (symbol & 0xFF)) & contextMask;
+            }
+        };
+    }
+
+    /**
+     * Generates a reproducible corpus in memory, chunks in parallel.
+     * The same seed gives the same bytes, whatever the number of threads.
+     * @param generator The symbol distribution.
+     * @param size The number of bytes.
+     * @param seed The random seed.
+     */
+    public static byte[] generate(CorpusGenerator generator, int size, long seed) {
+        byte[] output = new byte[size];
+        SplittableRandom seedRandom = new SplittableRandom(seed);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int start = 0; start < size; start += CHUNK_SIZE) {
+            final int offset = start;
+            final int length = Math.min(CHUNK_SIZE, size - start);
+            // Split in chunk order so the streams do not depend on scheduling
+            final SplittableRandom random = seedRandom.split();
+            tasks.add(ForkJoinPool.commonPool().submit(() -> generator.generate(output, offset, length, random)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        return output;
+    }
+
+    /**
+     * Generates a reproducible corpus of any size straight into a file.
+     * Up to 'threads' chunks are generated at a time, then written in order,
+     * so memory use is threads x 1 MB. The bytes are the same as generate()
+     * with the same generator and seed.
+     * @param generator The symbol distribution.
+     * @param file The output file (overwritten if it exists).
+     * @param size The number of bytes.
+     * @param seed The random seed.
+     * @param threads The number of worker threads.
+     */
+    public static void generateToFile(CorpusGenerator generator, Path file, long size, long seed, int threads)
+            throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        SplittableRandom seedRandom = new SplittableRandom(seed);
+        byte[][] buffers = new byte[threads][CHUNK_SIZE];
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            while (position < size) {
+                // One batch: a chunk per thread
+                List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                List<Integer> lengths = new ArrayList<>();
+                for (int t = 0; t < threads && position < size; t++) {
+                    final byte[] buffer = buffers[t];
+                    final int length = (int) Math.min(CHUNK_SIZE, size - position);
+                    final SplittableRandom random = seedRandom.split();
+                    tasks.add(pool.submit(() -> generator.generate(buffer, 0, length, random)));
+                    lengths.add(length);
+                    position += length;
+                }
+                for (int t = 0; t < tasks.size(); t++) {
+                    tasks.get(t).join();
+                    HuffmanFileFormat.writeFully(channel, ByteBuffer.wrap(buffers[t], 0, lengths.get(t)));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
@@ -0,0 +1,265 @@
+package cpcs324_project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Order-0 range ANS (rANS) entropy coder over bytes, with interleaved states.
+ *
+ * Huffman gives every byte a whole number of bits, so a byte with
+ * probability 0.9 still costs 1 bit instead of 0.15. rANS codes each byte
+ * in its fractional -log2(p) bits: the byte counts (HuffmanEncoder's
+ * counting stage) are scaled to frequencies summing to 2^PROB_BITS, and a
+ * 32-bit state absorbs each byte as state' = (state / f) * 2^PROB_BITS +
+ * start + state % f, shifting out whole bytes to stay in range.
+ *
+ * The coder is byte-wise (states in [2^23, 2^31)). Byte i uses state i % states, so the
+ * decode steps of neighbouring bytes are independent and the CPU runs them
+ * in parallel; all states share one byte stream. Encoding runs backwards
+ * over the input so decoding runs forwards. Decoding is table-driven: the
+ * low PROB_BITS bits of the state index a slot -> byte table.
+ *
+ * Layout: u64 original size, u8 state count, u16 symbol count, (u8 symbol,
+ * u16 frequency) per symbol, then the byte stream (initial states first).
+ */
+public class RansCodec implements Codec {
+
+    public static final int PROB_BITS = 14;
+    public static final int DEFAULT_STATES = 4;
+    public static final int MAX_STATES = 8;
+
+    private static final int PROB_SCALE = 1 << PROB_BITS;
+    private static final int STATE_LOW = 1 << 23; // Lower bound of a normalized state
+
+    private final int states;
+
+    public RansCodec() {
+        this(DEFAULT_STATES);
+    }
+
+    /**
+     * @param states The number of interleaved states (1 = plain sequential rANS).
+     */
+    public RansCodec(int states) {
+        if (states < 1 || states > MAX_STATES) {
+            throw new IllegalArgumentException("The state count must be 1 to " + MAX_STATES + ": " + states);
+        }
+        this.states = states;
+    }
+
+    @Override
+    public String getName() {
+        return "rANS x" + states;
+    }
+
+    public int getStates() {
+        return states;
+    }
+
+    @Override
+    public ByteBuffer compress(ByteBuffer input) {
+        int n = input.remaining();
+        int start = input.position();
+        long[] histogram = new long[256];
+        HuffmanEncoder.countBytesUnrolled(input, histogram);
+        int[] freq = normalize(histogram);
+        int[] cumulative = cumulative(freq);
+
+        // Each byte emits at most PROB_BITS bits, plus 4 bytes per final state
+        byte[] out = new byte[2 * n + 4 * states];
+        int ptr = out.length;
+        int[] state = new int[states];
+        Arrays.fill(state, STATE_LOW);
+
+        byte[] bytes = input.hasArray() ? input.array() : null;
+        int offset = input.hasArray() ? input.arrayOffset() + start : 0;
+        int s = (n - 1) % states; // State of the last byte
+        for (int i = n - 1; i >= 0; i--) {
+            int symbol = (bytes != null ? bytes[offset + i] : input.get(start + i)) & 0xFF;
+            int f = freq[symbol];
+            int x = state[s];
+            // Shift out bytes until the state is small enough to absorb the symbol
+            long maxState = ((long) (STATE_LOW >>> PROB_BITS) << 8) * f;
+            while (x >= maxState) {
+                out[--ptr] = (byte) x;
+                x >>>= 8;
+            }
+            state[s] = ((x / f) << PROB_BITS) + (x % f) + cumulative[symbol];
+            s = s == 0 ? states - 1 : s - 1;
+        }
+        // Final states, written so the decoder reads state 0 first
+        for (s = states - 1; s >= 0; s--) {
+            int x = state[s];
+            out[--ptr] = (byte) x;
+            out[--ptr] = (byte) (x >>> 8);
+            out[--ptr] = (byte) (x >>> 16);
+            out[--ptr] = (byte) (x >>> 24);
+        }
+
+        int symbolCount = 0;
+        for (int f : freq) {
+            if (f > 0) symbolCount++;
+        }
+        int payloadLength = out.length - ptr;
+        ByteBuffer output = ByteBuffer.allocate(8 + 1 + 2 + 3 * symbolCount + payloadLength);
+        output.putLong(n);
+        output.put((byte) states);
+        output.putShort((short) symbolCount);
+        for (int symbol = 0; symbol < 256; symbol++) {
+            if (freq[symbol] > 0) {
+                output.put((byte) symbol);
+                output.putShort((short) freq[symbol]);
+            }
+        }
+        output.put(out, ptr, payloadLength);
+        output.flip();
+        return output;
+    }
+
+    @Override
+    public ByteBuffer decompress(ByteBuffer compressed) throws IOException {
+        ByteBuffer input = compressed.duplicate();
+        int originalSize = CodecHeaders.readSize(input);
+        int stateCount = input.get() & 0xFF;
+        int symbolCount = input.getShort() & 0xFFFF;
+        if (stateCount < 1 || stateCount > MAX_STATES || symbolCount > 256) {
+            throw new IOException("Invalid rANS header");
+        }
+        byte[] output = new byte[originalSize];
+        if (originalSize == 0) {
+            return ByteBuffer.wrap(output);
+        }
+
+        // Slot -> symbol table over the 2^PROB_BITS cumulative frequency range
+        int[] freq = new int[256];
+        int[] cumulative = new int[256];
+        byte[] slotSymbol = new byte[PROB_SCALE];
+        int total = 0;
+        for (int i = 0; i < symbolCount; i++) {
+            int symbol = input.get() & 0xFF;
+            int f = input.getShort() & 0xFFFF;
+            if (f == 0 || total + f > PROB_SCALE) {
+                throw new IOException("Invalid rANS frequency table");
+            }
+            freq[symbol] = f;
+            cumulative[symbol] = total;
+            Arrays.fill(slotSymbol, total, total + f, (byte) symbol);
+            total += f;
+        }
+        if (total != PROB_SCALE) {
+            throw new IOException("rANS frequencies do not sum to " + PROB_SCALE);
+        }
+
+        byte[] in = new byte[input.remaining()];
+        input.get(in);
+        if (in.length < 4 * stateCount) {
+            throw new IOException("Compressed data is too short");
+        }
+        int ptr = 0;
+        int[] state = new int[stateCount];
+        for (int s = 0; s < stateCount; s++) {
+            state[s] = (in[ptr] & 0xFF) << 24 | (in[ptr + 1] & 0xFF) << 16 | (in[ptr + 2] & 0xFF) << 8 | (in[ptr + 3] & 0xFF);
+            ptr += 4;
+        }
+
+        final int mask = PROB_SCALE - 1;
+        int i = 0;
+        try {
+            // 4 states in locals: the four table lookups and multiplies do not depend on each other
+            if (stateCount == 4) {
+                int x0 = state[0];
+                int x1 = state[1];
+                int x2 = state[2];
+                int x3 = state[3];
+                for (int end = originalSize - 3; i < end; i += 4) {
+                    int s0 = slotSymbol[x0 & mask] & 0xFF;
+                    int s1 = slotSymbol[x1 & mask] & 0xFF;
+                    int s2 = slotSymbol[x2 & mask] & 0xFF;
+                    int s3 = slotSymbol[x3 & mask] & 0xFF;
+                    output[i] = (byte) s0;
+                    output[i + 1] = (byte) s1;
+                    output[i + 2] = (byte) s2;
+                    output[i + 3] = (byte) s3;
+                    x0 = freq[s0] * (x0 >>> PROB_BITS) + (x0 & mask) - cumulative[s0];
+                    x1 = freq[s1] * (x1 >>> PROB_BITS) + (x1 & mask) - cumulative[s1];
+                    x2 = freq[s2] * (x2 >>> PROB_BITS) + (x2 & mask) - cumulative[s2];
+                    x3 = freq[s3] * (x3 >>> PROB_BITS) + (x3 & mask) - cumulative[s3];
+                    // Refill in state order, the order the encoder wrote the bytes in reverse
+                    while (x0 < STATE_LOW) x0 = (x0 << 8) | (in[ptr++] & 0xFF);
+                    while (x1 < STATE_LOW) x1 = (x1 << 8) | (in[ptr++] & 0xFF);
+                    while (x2 < STATE_LOW) x2 = (x2 << 8) | (in[ptr++] & 0xFF);
+                    while (x3 < STATE_LOW) x3 = (x3 << 8) | (in[ptr++] & 0xFF);
+                }
+                state[0] = x0;
+                state[1] = x1;
+                state[2] = x2;
+                state[3] = x3;
+            }
+            for (; i < originalSize; i++) {
+                int s = i % stateCount;
+                int x = state[s];
+                int symbol = slotSymbol[x & mask] & 0xFF;
+                output[i] = (byte) symbol;
+                x = freq[symbol] * (x >>> PROB_BITS) + (x & mask) - cumulative[symbol];
+                while (x < STATE_LOW) {
+                    x = (x << 8) | (in[ptr++] & 0xFF);
+                }
+                state[s] = x;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Compressed data is too short");
+        }
+        return ByteBuffer.wrap(output);
+    }
+
+    /**
+     * Scales byte counts to frequencies summing to 2^PROB_BITS, every used byte at least 1.
+     */
+    static int[] normalize(long[] histogram) {
+        int[] freq = new int[256];
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        if (total == 0) return freq;
+
+        int sum = 0;
+        int largest = 0;
+        for (int symbol = 0; symbol < 256; symbol++) {
+            if (histogram[symbol] > 0) {
+                freq[symbol] = (int) Math.max(1, histogram[symbol] * PROB_SCALE / total);
+                sum += freq[symbol];
+                if (freq[symbol] > freq[largest]) largest = symbol;
+            }
+        }
+        // Rounding leaves a small difference; the most frequent byte absorbs it when it can
+        if (freq[largest] + PROB_SCALE - sum >= 1) {
+            freq[largest] += PROB_SCALE - sum;
+            return freq;
+        }
+        // Many rare bytes raised to 1: take the excess from the largest frequencies
+        while (sum > PROB_SCALE) {
+            largest = 0;
+            for (int symbol = 1; symbol < 256; symbol++) {
+                if (freq[symbol] > freq[largest]) largest = symbol;
+            }
+            int take = Math.min(sum - PROB_SCALE, freq[largest] - 1);
+            take = Math.max(1, Math.min(take, freq[largest] / 2));
+            freq[largest] -= take;
+            sum -= take;
+        }
+        return freq;
+    }
+
+    // Start of each symbol's range in [0, 2^PROB_BITS)
+    private static int[] cumulative(int[] freq) {
+        int[] cumulative = new int[256];
+        int total = 0;
+        for (int symbol = 0; symbol < 256; symbol++) {
+            cumulative[symbol] = total;
+            total += freq[symbol];
+        }
+        return cumulative;
+    }
+}
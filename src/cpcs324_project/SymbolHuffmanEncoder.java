@@ -0,0 +1,189 @@
+package cpcs324_project;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Huffman coding over a SymbolModel (bytes, UTF-8 code points or 16-bit units).
+ *
+ * The symbols that occur in the input form a dense alphabet (index 0..n-1 in
+ * symbol order); the Huffman code is built over those indices by
+ * HuffmanEncoder, so the tree and canonical code are built the same way as for bytes.
+ * BYTES uses HuffmanEncoder's byte path directly.
+ *
+ * Header layout (big-endian):
+ * - model          1 byte   (SymbolModel ordinal)
+ * - original size  8 bytes
+ * - tail           1 byte count + bytes (input bytes after the last whole symbol)
+ * - alphabet       u32 count, then per index u24 symbol + u8 code length
+ */
+public class SymbolHuffmanEncoder {
+
+    // Dense indices are stored as chars in CanonicalHuffmanCode
+    public static final int MAX_ALPHABET_SIZE = 65536;
+
+    private final SymbolModel model;
+    private final HuffmanEncoder encoder = new HuffmanEncoder();
+    private int[] alphabet = new int[0]; // Symbol value of each dense index
+    private byte[] tail = new byte[0];   // Bytes after the last whole symbol
+    private long originalSize;
+
+    public SymbolHuffmanEncoder(SymbolModel model) {
+        this.model = model;
+    }
+
+    /**
+     * Encodes raw bytes with the symbols of this model.
+     * @param data The bytes between position and limit are encoded (position is not changed).
+     * @return The packed encoded bitstream; decode it with getHeader().
+     * @throws IllegalArgumentException If the input has more than MAX_ALPHABET_SIZE distinct symbols.
+     */
+    public PackedBitstream encode(ByteBuffer data) {
+        int start = data.position();
+        int limit = data.limit();
+        int end = model.symbolEnd(start, limit);
+        originalSize = limit - start;
+        tail = new byte[limit - end];
+        for (int i = 0; i < tail.length; i++) {
+            tail[i] = data.get(end + i);
+        }
+
+        if (model == SymbolModel.BYTES) {
+            alphabet = new int[256];
+            for (int symbol = 0; symbol < 256; symbol++) {
+                alphabet[symbol] = symbol;
+            }
+            return encoder.encode(data);
+        }
+
+        // Pass 1: histogram over all possible symbol values (primitive array, no boxing)
+        int[] counts = new int[model.getSymbolLimit()];
+        for (int i = start; i < end; ) {
+            int next = model.next(data, i, end);
+            counts[next >>> 3]++;
+            i += next & 7;
+        }
+
+        // Dense alphabet: the used symbols in increasing order; counts[] becomes the index table
+        int used = 0;
+        for (int count : counts) {
+            if (count > 0) used++;
+        }
+        if (used > MAX_ALPHABET_SIZE) {
+            throw new IllegalArgumentException("Too many distinct symbols for " + model + ": " + used
+                    + " (at most " + MAX_ALPHABET_SIZE + "), use SymbolModel.BYTES");
+        }
+        alphabet = new int[used];
+        long[] histogram = new long[used];
+        int index = 0;
+        for (int symbol = 0; symbol < counts.length; symbol++) {
+            if (counts[symbol] > 0) {
+                alphabet[index] = symbol;
+                histogram[index] = counts[symbol];
+                counts[symbol] = index++;
+            }
+        }
+        encoder.buildCodes(histogram);
+
+        // Pass 2: encode the dense index of each symbol
+        int[] bits = encoder.getCodeBits();
+        byte[] lengths = encoder.getCodeLengths();
+        BitWriter writer = new BitWriter((end - start) / 2);
+        for (int i = start; i < end; ) {
+            int next = model.next(data, i, end);
+            int symbol = counts[next >>> 3];
+            writer.writeBits(bits[symbol], lengths[symbol]);
+            i += next & 7;
+        }
+        return writer.toBitstream();
+    }
+
+    /**
+     * Returns the header needed to decode the last encoded bitstream.
+     */
+    public byte[] getHeader() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(model.ordinal());
+            out.writeLong(originalSize);
+            out.writeByte(tail.length);
+            out.write(tail);
+
+            CanonicalHuffmanCode code = encoder.getCanonicalCode();
+            out.writeInt(code.getSymbolCount());
+            for (int i = 0; i < code.getSymbolCount(); i++) {
+                int symbol = alphabet[code.getSymbol(i)];
+                out.writeByte(symbol >>> 16);
+                out.writeShort(symbol);
+                out.writeByte(code.getLength(i));
+            }
+        } catch (IOException e) {
+            // ByteArrayOutputStream never throws
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores the original bytes from a header and its bitstream.
+     * @param header The header produced by getHeader().
+     * @param bitstream The packed bitstream produced by encode().
+     * @return The original bytes.
+     */
+    public static byte[] decode(byte[] header, PackedBitstream bitstream) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(header));
+        int modelIndex = in.readUnsignedByte();
+        if (modelIndex >= SymbolModel.values().length) {
+            throw new IOException("Unknown symbol model: " + modelIndex);
+        }
+        SymbolModel model = SymbolModel.values()[modelIndex];
+        long originalSize = in.readLong();
+        if (originalSize > Integer.MAX_VALUE) {
+            throw new IOException("Original size is too large: " + originalSize);
+        }
+        byte[] tail = new byte[in.readUnsignedByte()];
+        in.readFully(tail);
+
+        // The code is rebuilt over dense indices 0..n-1; symbols[] maps them back
+        int count = in.readInt();
+        if (count < 0 || count > MAX_ALPHABET_SIZE) {
+            throw new IOException("Invalid alphabet size: " + count);
+        }
+        int[] symbols = new int[count];
+        char[] indices = new char[count];
+        int[] lengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            symbols[i] = (in.readUnsignedByte() << 16) | in.readUnsignedShort();
+            indices[i] = (char) i;
+            lengths[i] = in.readUnsignedByte();
+        }
+
+        byte[] output = new byte[(int) originalSize];
+        int position = 0;
+        int symbolEnd = output.length - tail.length;
+        if (count > 0) {
+            HuffmanDecodeTable table = new HuffmanDecodeTable(new CanonicalHuffmanCode(indices, lengths));
+            BitReader reader = new BitReader(bitstream);
+            while (position < symbolEnd) {
+                position = model.write(symbols[table.decodeSymbol(reader)], output, position);
+            }
+        }
+        System.arraycopy(tail, 0, output, position, tail.length);
+        return output;
+    }
+
+    /**
+     * Returns the number of distinct symbols of the last encoded input.
+     */
+    public int getAlphabetSize() {
+        return model == SymbolModel.BYTES ? encoder.getCanonicalCode().getSymbolCount() : alphabet.length;
+    }
+
+    public SymbolModel getModel() {
+        return model;
+    }
+}
@@ -0,0 +1,156 @@
+package cpcs324_project;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Selects what one Huffman symbol is.
+ *
+ * BYTES: every byte value 0-255 is a symbol (any file, no decoding at all).
+ * UTF8_CODE_POINTS: every well-formed UTF-8 sequence is one symbol (its code
+ * point). Bytes that are not part of a well-formed sequence become escape
+ * symbols 0x110000 + byte, so malformed text still round-trips exactly.
+ * UTF16_UNITS: every pair of bytes (big-endian) is one 16-bit symbol; an odd
+ * trailing byte is stored separately by the codec.
+ *
+ * The parsing works directly on the bytes (no Charset, no String), one
+ * symbol per call to next().
+ */
+public enum SymbolModel {
+
+    BYTES(256) {
+        @Override
+        int next(ByteBuffer data, int position, int limit) {
+            return ((data.get(position) & 0xFF) << 3) | 1;
+        }
+
+        @Override
+        int write(int symbol, byte[] output, int position) {
+            output[position] = (byte) symbol;
+            return position + 1;
+        }
+    },
+
+    UTF8_CODE_POINTS(0x110000 + 256) {
+        @Override
+        int next(ByteBuffer data, int position, int limit) {
+            int b0 = data.get(position) & 0xFF;
+            if (b0 < 0x80) {
+                return (b0 << 3) | 1; // ASCII fast path
+            }
+
+            int length;
+            int codePoint;
+            int minimum;
+            if (b0 >= 0xC2 && b0 <= 0xDF) {
+                length = 2;
+                codePoint = b0 & 0x1F;
+                minimum = 0x80;
+            } else if (b0 >= 0xE0 && b0 <= 0xEF) {
+                length = 3;
+                codePoint = b0 & 0x0F;
+                minimum = 0x800;
+            } else if (b0 >= 0xF0 && b0 <= 0xF4) {
+                length = 4;
+                codePoint = b0 & 0x07;
+                minimum = 0x10000;
+            } else {
+                return ((ESCAPE + b0) << 3) | 1;
+            }
+            if (position + length > limit) {
+                return ((ESCAPE + b0) << 3) | 1;
+            }
+            for (int i = 1; i < length; i++) {
+                int b = data.get(position + i) & 0xFF;
+                if ((b & 0xC0) != 0x80) {
+                    return ((ESCAPE + b0) << 3) | 1;
+                }
+                codePoint = (codePoint << 6) | (b & 0x3F);
+            }
+            // Overlong forms, surrogates and values above U+10FFFF are not well-formed
+            if (codePoint < minimum || codePoint > 0x10FFFF || (codePoint >= 0xD800 && codePoint <= 0xDFFF)) {
+                return ((ESCAPE + b0) << 3) | 1;
+            }
+            return (codePoint << 3) | length;
+        }
+
+        @Override
+        int write(int symbol, byte[] output, int position) {
+            if (symbol < 0x80) {
+                output[position] = (byte) symbol;
+                return position + 1;
+            } else if (symbol < 0x800) {
+                output[position] = (byte) (0xC0 | (symbol >>> 6));
+                output[position + 1] = (byte) (0x80 | (symbol & 0x3F));
+                return position + 2;
+            } else if (symbol < 0x10000) {
+                output[position] = (byte) (0xE0 | (symbol >>> 12));
+                output[position + 1] = (byte) (0x80 | ((symbol >>> 6) & 0x3F));
+                output[position + 2] = (byte) (0x80 | (symbol & 0x3F));
+                return position + 3;
+            } else if (symbol < ESCAPE) {
+                output[position] = (byte) (0xF0 | (symbol >>> 18));
+                output[position + 1] = (byte) (0x80 | ((symbol >>> 12) & 0x3F));
+                output[position + 2] = (byte) (0x80 | ((symbol >>> 6) & 0x3F));
+                output[position + 3] = (byte) (0x80 | (symbol & 0x3F));
+                return position + 4;
+            }
+            output[position] = (byte) (symbol - ESCAPE); // Escaped raw byte
+            return position + 1;
+        }
+    },
+
+    UTF16_UNITS(0x10000) {
+        @Override
+        int next(ByteBuffer data, int position, int limit) {
+            return (((data.get(position) & 0xFF) << 8 | (data.get(position + 1) & 0xFF)) << 3) | 2;
+        }
+
+        @Override
+        int write(int symbol, byte[] output, int position) {
+            output[position] = (byte) (symbol >>> 8);
+            output[position + 1] = (byte) symbol;
+            return position + 2;
+        }
+
+        @Override
+        int symbolEnd(int position, int limit) {
+            return position + ((limit - position) & ~1);
+        }
+    };
+
+    // First escape symbol of UTF8_CODE_POINTS (one past the last code point)
+    static final int ESCAPE = 0x110000;
+
+    private final int symbolLimit;
+
+    SymbolModel(int symbolLimit) {
+        this.symbolLimit = symbolLimit;
+    }
+
+    /**
+     * Returns one more than the largest symbol value of this model.
+     */
+    public int getSymbolLimit() {
+        return symbolLimit;
+    }
+
+    /**
+     * Reads the symbol starting at 'position' (before 'limit').
+     * @return (symbol << 3) | number of bytes used (1-4).
+     */
+    abstract int next(ByteBuffer data, int position, int limit);
+
+    /**
+     * Writes the bytes of one symbol.
+     * @return The position after the written bytes.
+     */
+    abstract int write(int symbol, byte[] output, int position);
+
+    /**
+     * Returns where the symbols end; the bytes after it (at most one, for
+     * 16-bit units) do not form a whole symbol and are stored as they are.
+     */
+    int symbolEnd(int position, int limit) {
+        return limit;
+    }
+}
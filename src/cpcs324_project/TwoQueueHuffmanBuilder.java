@@ -0,0 +1,91 @@
+package cpcs324_project;
+
+import java.util.Arrays;
+
+/**
+ * Linear-time Huffman construction with two queues (van Leeuwen).
+ *
+ * The leaves are sorted by frequency once. Merged nodes are created in
+ * non-decreasing order of weight, so they form a second sorted queue and the
+ * two smallest nodes are always at the front of the two queues: no heap and
+ * no compareTo() is needed, and each merge is O(1) after the sort.
+ *
+ * The tree is stored in flat arrays instead of HuffmanNode objects: node i
+ * (leaves 0..n-1 in sorted order, merged nodes n..2n-2) only keeps the index
+ * of its parent, which is all that is needed to get the code lengths.
+ * Weights are longs, so no scaling of large counts is needed.
+ */
+public class TwoQueueHuffmanBuilder {
+
+    // Symbol index bits in the sort key (alphabets of up to 65536 symbols)
+    private static final int SYMBOL_BITS = 16;
+
+    /**
+     * Computes optimal (Huffman) code lengths.
+     * @param frequencies Counts indexed by symbol (at most 65536 symbols).
+     * @return The code length of each symbol (0 for unused symbols, 1 if only one symbol is used).
+     */
+    public static int[] buildCodeLengths(long[] frequencies) {
+        if (frequencies.length > 1 << SYMBOL_BITS) {
+            throw new IllegalArgumentException("At most 65536 symbols are supported: " + frequencies.length);
+        }
+        int[] codeLengths = new int[frequencies.length];
+
+        // The frequency shares a long with the symbol, so it must stay below 2^47
+        long maxCount = 0;
+        for (long count : frequencies) {
+            maxCount = Math.max(maxCount, count);
+        }
+        int shift = 0;
+        while ((maxCount >> shift) >= 1L << (63 - SYMBOL_BITS)) {
+            shift++;
+        }
+
+        // 1. Sort the used symbols by (frequency, symbol) as packed primitive keys
+        int n = 0;
+        long[] keys = new long[frequencies.length];
+        for (int symbol = 0; symbol < frequencies.length; symbol++) {
+            if (frequencies[symbol] > 0) {
+                keys[n++] = (Math.max(1, frequencies[symbol] >> shift) << SYMBOL_BITS) | symbol;
+            }
+        }
+        if (n == 0) {
+            return codeLengths;
+        }
+        if (n == 1) {
+            codeLengths[(int) (keys[0] & 0xFFFF)] = 1;
+            return codeLengths;
+        }
+        Arrays.sort(keys, 0, n);
+
+        // 2. Flat node layout: weight and parent of every node
+        long[] weight = new long[2 * n - 1];
+        int[] parent = new int[2 * n - 1];
+        for (int i = 0; i < n; i++) {
+            weight[i] = keys[i] >>> SYMBOL_BITS;
+        }
+
+        // 3. Merge the two smallest fronts; leaves win ties (keeps the tree shallow)
+        int nextLeaf = 0;
+        int nextMerged = n;
+        for (int node = n; node < 2 * n - 1; node++) {
+            int first = (nextMerged >= node || (nextLeaf < n && weight[nextLeaf] <= weight[nextMerged]))
+                    ? nextLeaf++ : nextMerged++;
+            int second = (nextMerged >= node || (nextLeaf < n && weight[nextLeaf] <= weight[nextMerged]))
+                    ? nextLeaf++ : nextMerged++;
+            weight[node] = weight[first] + weight[second];
+            parent[first] = node;
+            parent[second] = node;
+        }
+
+        // 4. Parents have larger indices, so depths can be filled top-down in one pass
+        int[] depth = new int[2 * n - 1];
+        for (int node = 2 * n - 3; node >= 0; node--) {
+            depth[node] = depth[parent[node]] + 1;
+        }
+        for (int i = 0; i < n; i++) {
+            codeLengths[(int) (keys[i] & 0xFFFF)] = depth[i];
+        }
+        return codeLengths;
+    }
+}